@@ -0,0 +1,134 @@
+package team.qtk.jasync.mutiny;
+
+import io.smallrye.mutiny.Uni;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * 与{@link UniPromiseBenchmark}同样的操作，直接用Mutiny Uni与CompletableFuture实现，用于衡量UniPromise封装本身的开销
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BaselineBenchmark {
+
+    @Param({ "sync", "async" })
+    public String mode;
+
+    private ExecutorService executor;
+
+    @Setup
+    public void setup() {
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private <T> Uni<T> uni(T value) {
+        Uni<T> uni = Uni.createFrom().item(value);
+        return "async".equals(mode) ? uni.emitOn(executor) : uni;
+    }
+
+    private <T> CompletableFuture<T> future(T value) {
+        return "async".equals(mode)
+            ? CompletableFuture.supplyAsync(() -> value, executor)
+            : CompletableFuture.completedFuture(value);
+    }
+
+    @Benchmark
+    public Integer uniThen() {
+        return uni(1).flatMap(v -> Uni.createFrom().item(v + 1)).await().indefinitely();
+    }
+
+    @Benchmark
+    public Integer uniThenChain() {
+        return uni(1)
+            .flatMap(v -> Uni.createFrom().item(v + 1))
+            .flatMap(v -> Uni.createFrom().item(v + 1))
+            .flatMap(v -> Uni.createFrom().item(v + 1))
+            .flatMap(v -> Uni.createFrom().item(v + 1))
+            .await()
+            .indefinitely();
+    }
+
+    @Benchmark
+    public Integer uniCatch() {
+        return uni(1)
+            .<Integer>flatMap(v -> Uni.createFrom().failure(new IllegalStateException()))
+            .onFailure(IllegalStateException.class)
+            .recoverWithItem(1)
+            .await()
+            .indefinitely();
+    }
+
+    @Benchmark
+    public Integer uniFinally() {
+        return uni(1).onTermination().invoke(() -> {}).await().indefinitely();
+    }
+
+    @Benchmark
+    public Integer uniWhile() {
+        int[] counter = { 0 };
+        return uni(0)
+            .flatMap(
+                start ->
+                    Uni
+                        .createFrom()
+                        .deferred(() -> Uni.createFrom().item(counter[0]))
+                        .repeat()
+                        .whilst(v -> ++counter[0] < UniPromiseBenchmark.LOOP_SIZE)
+                        .collect()
+                        .last()
+            )
+            .await()
+            .indefinitely();
+    }
+
+    @Benchmark
+    public Integer futureThen() {
+        return future(1).thenCompose(v -> CompletableFuture.completedFuture(v + 1)).join();
+    }
+
+    @Benchmark
+    public Integer futureThenChain() {
+        return future(1)
+            .thenCompose(v -> CompletableFuture.completedFuture(v + 1))
+            .thenCompose(v -> CompletableFuture.completedFuture(v + 1))
+            .thenCompose(v -> CompletableFuture.completedFuture(v + 1))
+            .thenCompose(v -> CompletableFuture.completedFuture(v + 1))
+            .join();
+    }
+
+    @Benchmark
+    public Integer futureCatch() {
+        return future(1)
+            .<Integer>thenCompose(v -> CompletableFuture.failedFuture(new IllegalStateException()))
+            .exceptionally(e -> 1)
+            .join();
+    }
+
+    @Benchmark
+    public Integer futureFinally() {
+        return future(1).whenComplete((v, e) -> {}).join();
+    }
+
+    @Benchmark
+    public Integer futureWhile() {
+        CompletableFuture<Integer> result = future(0);
+        for (int i = 0; i < UniPromiseBenchmark.LOOP_SIZE; ++i) {
+            result = result.thenCompose(v -> CompletableFuture.completedFuture(v + 1));
+        }
+        return result.join();
+    }
+}
@@ -0,0 +1,179 @@
+package team.qtk.jasync.mutiny;
+
+import io.github.vipcxj.jasync.spec.JAsync;
+import io.github.vipcxj.jasync.spec.JPromise;
+import io.github.vipcxj.jasync.spec.catcher.Catcher;
+import io.github.vipcxj.jasync.spec.functional.VoidPromiseSupplier;
+import io.github.vipcxj.jasync.spec.switchexpr.ICase;
+import io.smallrye.mutiny.Uni;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * 每个UniPromise操作符的开销，sync为已完成的Uni，async为在另一线程完成的Uni。
+ * 对照组见{@link BaselineBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UniPromiseBenchmark {
+
+    static final int LOOP_SIZE = 100;
+
+    @Param({ "sync", "async" })
+    public String mode;
+
+    private ExecutorService executor;
+
+    private List<ICase<Integer>> cases;
+
+    private List<Catcher<?, Integer>> catchers;
+
+    @Setup
+    public void setup() {
+        executor = Executors.newSingleThreadExecutor();
+        cases = new ArrayList<>();
+        for (int i = 0; i < 16; ++i) {
+            cases.add(new ConstCase(i, JAsync::just));
+        }
+        catchers =
+            List.of(
+                new Catcher<>(IllegalArgumentException.class, e -> JAsync.just(1)),
+                new Catcher<>(UnsupportedOperationException.class, e -> JAsync.just(2)),
+                new Catcher<>(IllegalStateException.class, e -> JAsync.just(3)),
+                new Catcher<>(RuntimeException.class, e -> JAsync.just(4))
+            );
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private <T> Uni<T> source(T value) {
+        Uni<T> uni = Uni.createFrom().item(value);
+        return "async".equals(mode) ? uni.emitOn(executor) : uni;
+    }
+
+    private <T> JPromise<T> promise(T value) {
+        return Promises.from(source(value));
+    }
+
+    private <T> JPromise<T> failed(Throwable t) {
+        return "async".equals(mode) ? this.<T>promise(null).then(v -> JAsync.error(t)) : JAsync.error(t);
+    }
+
+    @Benchmark
+    public Integer then() {
+        return promise(1).then(v -> JAsync.just(v + 1)).block();
+    }
+
+    @Benchmark
+    public Integer thenChain() {
+        return promise(1)
+            .then(v -> JAsync.just(v + 1))
+            .then(v -> JAsync.just(v + 1))
+            .then(v -> JAsync.just(v + 1))
+            .then(v -> JAsync.just(v + 1))
+            .block();
+    }
+
+    @Benchmark
+    public Integer thenVoid() {
+        return this.<Void>promise(null).then(() -> JAsync.just(1)).block();
+    }
+
+    @Benchmark
+    public Integer doCatch() {
+        return this.<Integer>failed(new IllegalStateException()).doCatch(IllegalStateException.class, e -> JAsync.just(1)).block();
+    }
+
+    @Benchmark
+    public Integer doCatchCatchers() {
+        return this.<Integer>failed(new IllegalStateException()).doCatch(catchers).block();
+    }
+
+    @Benchmark
+    public Integer doCatchNoError() {
+        return promise(1).doCatch(IllegalStateException.class, e -> JAsync.just(2)).block();
+    }
+
+    @Benchmark
+    public Integer doFinally() {
+        return promise(1).doFinally(JAsync::just).block();
+    }
+
+    @Benchmark
+    public Integer doWhile() {
+        int[] counter = { 0 };
+        return promise(0).doWhile(() -> counter[0]++ < LOOP_SIZE, v -> JAsync.just(v + 1), null).block();
+    }
+
+    @Benchmark
+    public Integer doWhileAsyncBody() {
+        int[] counter = { 0 };
+        return promise(0).doWhile(() -> counter[0]++ < LOOP_SIZE, this::promise, null).block();
+    }
+
+    @Benchmark
+    public Void doWhileVoid() {
+        int[] counter = { 0 };
+        return this.<Void>promise(null).doWhileVoid(() -> counter[0]++ < LOOP_SIZE, JAsync::just, null).block();
+    }
+
+    @Benchmark
+    public Void doForEachIntArray() {
+        int[] array = new int[LOOP_SIZE];
+        return this.<Void>promise(null).doForEachIntArray(array, v -> JAsync.just(), null).block();
+    }
+
+    @Benchmark
+    public Void doSwitchFirst() {
+        return this.<Void>promise(null).doSwitch(0, cases, null).block();
+    }
+
+    @Benchmark
+    public Void doSwitchLast() {
+        return this.<Void>promise(null).doSwitch(cases.size() - 1, cases, null).block();
+    }
+
+    @Benchmark
+    public Integer catchReturn() {
+        return this.<Integer>promise(null).<Integer>then(() -> JAsync.doReturn(JAsync.just(1))).<Integer>catchReturn().block();
+    }
+
+    @Benchmark
+    public Integer catchReturnNoReturn() {
+        return promise(1).<Integer>catchReturn().block();
+    }
+
+    static final class ConstCase implements ICase<Integer> {
+
+        private final int value;
+        private final VoidPromiseSupplier body;
+
+        ConstCase(int value, VoidPromiseSupplier body) {
+            this.value = value;
+            this.body = body;
+        }
+
+        @Override
+        public boolean is(Integer value, boolean isDefault) {
+            return !isDefault && value != null && value == this.value;
+        }
+
+        @Override
+        public VoidPromiseSupplier getBody() {
+            return body;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package team.qtk.jasync.mutiny;
+
+import io.smallrye.mutiny.Uni;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * 10万个同时在途、每个等待10ms异步结果的任务，对比在平台线程池与虚拟线程executor(需Java 21+)上执行的完成时间(gradle jmh在Java 21以下只运行platform一组)；
+ * block()在两种线程上都走Mutiny的await()，这里衡量的是executor的选择，而非block()本身
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class VirtualThreadBenchmark {
+
+    @Param({ "100000" })
+    public int tasks;
+
+    @Param({ "platform", "virtual" })
+    public String threads;
+
+    private ExecutorService executor;
+
+    @Setup
+    public void setup() {
+        executor = "virtual".equals(threads) ? VirtualThreads.newVirtualThreadPerTaskExecutor() : Executors.newFixedThreadPool(256);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public long blockInFlight() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(tasks);
+        AtomicLong sum = new AtomicLong();
+        for (int i = 0; i < tasks; ++i) {
+            int value = i;
+            executor.execute(
+                () -> {
+                    Integer result = Promises
+                        .from(Uni.createFrom().item(value).onItem().delayIt().by(Duration.ofMillis(10)))
+                        .block();
+                    sum.addAndGet(result);
+                    done.countDown();
+                }
+            );
+        }
+        done.await();
+        return sum.get();
+    }
+
+    @Benchmark
+    public long asyncInFlight() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(tasks);
+        AtomicLong sum = new AtomicLong();
+        for (int i = 0; i < tasks; ++i) {
+            int value = i;
+            UniPromise<Void> promise = (UniPromise<Void>) Promises
+                .from(Uni.createFrom().item(value).onItem().delayIt().by(Duration.ofMillis(10)))
+                .<Void>then(v -> {
+                    sum.addAndGet(v);
+                    done.countDown();
+                    return null;
+                });
+            promise.async(executor);
+        }
+        done.await();
+        return sum.get();
+    }
+}
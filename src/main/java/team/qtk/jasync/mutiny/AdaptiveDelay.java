@@ -0,0 +1,59 @@
+package team.qtk.jasync.mutiny;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Promises.hedge()的自适应延迟：记录最近的请求耗时，以其percentile分位数作为发起对冲请求的延迟。
+ * 样本写入环形数组，不加锁；每记录RECOMPUTE个样本重新计算一次分位数，样本不足时使用初始延迟
+ */
+public final class AdaptiveDelay {
+
+    private static final int SAMPLES = 1024;
+
+    private static final int RECOMPUTE = 64;
+
+    private final double percentile;
+
+    private final AtomicLongArray samples = new AtomicLongArray(SAMPLES);
+
+    private final AtomicLong count = new AtomicLong();
+
+    private volatile long delayNanos;
+
+    AdaptiveDelay(double percentile, Duration initialDelay) {
+        if (!(percentile > 0 && percentile <= 1)) {
+            throw new IllegalArgumentException("percentile must be in (0, 1]: " + percentile);
+        }
+        this.percentile = percentile;
+        this.delayNanos = initialDelay.toNanos();
+    }
+
+    public Duration current() {
+        return Duration.ofNanos(delayNanos);
+    }
+
+    long delayNanos() {
+        return delayNanos;
+    }
+
+    void record(long nanos) {
+        long n = count.getAndIncrement();
+        samples.set((int) (n & (SAMPLES - 1)), nanos);
+        if ((n + 1) % RECOMPUTE == 0) {
+            recompute((int) Math.min(n + 1, SAMPLES));
+        }
+    }
+
+    // 并发写入时可能读到个别新旧混合的样本，对估计值影响可以忽略
+    private void recompute(int size) {
+        long[] sorted = new long[size];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = samples.get(i);
+        }
+        Arrays.sort(sorted);
+        delayNanos = sorted[Math.max(0, (int) Math.ceil(percentile * size) - 1)];
+    }
+}
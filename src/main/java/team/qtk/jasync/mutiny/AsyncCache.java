@@ -0,0 +1,301 @@
+package team.qtk.jasync.mutiny;
+
+import io.github.vipcxj.jasync.spec.JPromise;
+import io.github.vipcxj.jasync.spec.Utils;
+import io.github.vipcxj.jasync.spec.functional.PromiseFunction;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 异步缓存：同一key并发未命中时共享一次加载(single-flight)，加载不因调用方取消而取消。
+ * 容量按分段LRU(probation/protected)淘汰，支持写入后过期(TTL)与到期前后台刷新(refresh-ahead)；
+ * 加载失败或取消不缓存，下一次get重新加载；刷新失败时保留旧值
+ */
+public class AsyncCache<K, V> {
+
+    private static final int NONE = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+
+    private final ConcurrentHashMap<K, Node<K, V>> map = new ConcurrentHashMap<>();
+
+    private final int maximumSize;
+
+    // protected段最多占容量的80%，只访问过一次的条目先从probation段淘汰
+    private final int protectedSize;
+
+    // 0表示不过期/不刷新
+    private final long expireNanos;
+    private final long refreshNanos;
+
+    // 淘汰队列只在持锁时修改；读命中时拿不到锁就放弃调整顺序，不阻塞读
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Node<K, V> probation = Node.sentinel();
+    private final Node<K, V> protectedQueue = Node.sentinel();
+    private int size;
+    private int protectedCount;
+
+    AsyncCache(int maximumSize, Duration expireAfterWrite, Duration refreshAfterWrite) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("maximumSize must be positive: " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+        this.protectedSize = Math.max(1, (int) (maximumSize * 0.8));
+        this.expireNanos = toNanos(expireAfterWrite);
+        this.refreshNanos = toNanos(refreshAfterWrite);
+    }
+
+    private static long toNanos(Duration duration) {
+        if (duration == null) {
+            return 0;
+        }
+        if (duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException("duration must be positive: " + duration);
+        }
+        return duration.toNanos();
+    }
+
+    // 命中时返回已完成的promise；未命中时调用loader，并发的同key请求共享同一个加载中的promise
+    public JPromise<V> get(K key, PromiseFunction<K, V> loader) {
+        for (;;) {
+            Node<K, V> node = map.get(key);
+            if (node != null) {
+                JPromise<V> pending = node.pending;
+                if (pending != null) {
+                    return pending;
+                }
+                long now = System.nanoTime();
+                if (expireNanos > 0 && now - node.writeTime >= expireNanos) {
+                    remove(node);
+                    continue;
+                }
+                access(node);
+                if (refreshNanos > 0 && now - node.writeTime >= refreshNanos) {
+                    refresh(node, loader);
+                }
+                return UniPromise.just(node.value);
+            }
+            // 放入map前就设置好pending，其他线程不会看到既无值又无pending的节点
+            Node<K, V> created = new Node<>(key);
+            UniPromise<V> shared = new UniPromise<>(call(key, loader), Promises.getDefaultExecutor(), true);
+            created.pending = shared;
+            if (map.putIfAbsent(key, created) == null) {
+                load(created, shared);
+                return shared;
+            }
+        }
+    }
+
+    // 只读取已加载且未过期的值，不触发加载
+    public V getIfPresent(K key) {
+        Node<K, V> node = map.get(key);
+        if (node == null || node.pending != null) {
+            return null;
+        }
+        if (expireNanos > 0 && System.nanoTime() - node.writeTime >= expireNanos) {
+            remove(node);
+            return null;
+        }
+        access(node);
+        return node.value;
+    }
+
+    // 移除key，加载中的请求仍会完成，但结果不再缓存
+    public void invalidate(K key) {
+        Node<K, V> node = map.get(key);
+        if (node != null) {
+            remove(node);
+        }
+    }
+
+    public void invalidateAll() {
+        for (Node<K, V> node : map.values()) {
+            remove(node);
+        }
+    }
+
+    // 已加载的条目数(不含加载中的key)
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void load(Node<K, V> node, UniPromise<V> shared) {
+        // 立即开始加载，不依赖调用方订阅；调用方取消只影响自己
+        shared
+            .<Uni<V>>unwrap(Uni.class)
+            .subscribe()
+            .with(
+                value -> {
+                    if (value == null || map.get(node.key) != node) {
+                        // null值不缓存；已被invalidate的key不再放回
+                        map.remove(node.key, node);
+                        node.pending = null;
+                        return;
+                    }
+                    node.value = value;
+                    node.writeTime = System.nanoTime();
+                    node.pending = null;
+                    insert(node);
+                },
+                error -> map.remove(node.key, node)
+            );
+    }
+
+    private void refresh(Node<K, V> node, PromiseFunction<K, V> loader) {
+        if (!node.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        call(node.key, loader)
+            .subscribe()
+            .with(
+                value -> {
+                    if (value != null) {
+                        node.value = value;
+                        node.writeTime = System.nanoTime();
+                    }
+                    node.refreshing.set(false);
+                },
+                error -> {
+                    // 刷新失败保留旧值，到期后由get重新加载
+                    Infrastructure.handleDroppedException(error);
+                    node.refreshing.set(false);
+                }
+            );
+    }
+
+    private static <K, V> Uni<V> call(K key, PromiseFunction<K, V> loader) {
+        return Uni
+            .createFrom()
+            .deferred(
+                () -> {
+                    try {
+                        return Utils.safeApply(loader, key).unwrap(Uni.class);
+                    } catch (Throwable t) {
+                        return Uni.createFrom().failure(t);
+                    }
+                }
+            );
+    }
+
+    private void insert(Node<K, V> node) {
+        lock.lock();
+        try {
+            if (map.get(node.key) != node || node.queue != NONE) {
+                return;
+            }
+            link(probation, node, PROBATION);
+            size++;
+            while (size > maximumSize) {
+                Node<K, V> victim = probation.next != probation ? probation.next : protectedQueue.next;
+                map.remove(victim.key, victim);
+                discard(victim);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void access(Node<K, V> node) {
+        if (!lock.tryLock()) {
+            return;
+        }
+        try {
+            if (node.queue == PROBATION) {
+                // 第二次访问时升入protected段，超出时把protected段最久未用的降回probation段
+                unlink(node);
+                link(protectedQueue, node, PROTECTED);
+                if (protectedCount > protectedSize) {
+                    Node<K, V> demoted = protectedQueue.next;
+                    unlink(demoted);
+                    link(probation, demoted, PROBATION);
+                }
+            } else if (node.queue == PROTECTED) {
+                unlink(node);
+                link(protectedQueue, node, PROTECTED);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void remove(Node<K, V> node) {
+        map.remove(node.key, node);
+        lock.lock();
+        try {
+            discard(node);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void discard(Node<K, V> node) {
+        if (node.queue != NONE) {
+            unlink(node);
+            size--;
+        }
+    }
+
+    // 加入队尾(最近使用)，队首为最久未用
+    private void link(Node<K, V> queue, Node<K, V> node, int type) {
+        node.prev = queue.prev;
+        node.next = queue;
+        queue.prev.next = node;
+        queue.prev = node;
+        node.queue = type;
+        if (type == PROTECTED) {
+            protectedCount++;
+        }
+    }
+
+    private void unlink(Node<K, V> node) {
+        if (node.queue == NONE) {
+            return;
+        }
+        node.prev.next = node.next;
+        node.next.prev = node.prev;
+        node.prev = null;
+        node.next = null;
+        if (node.queue == PROTECTED) {
+            protectedCount--;
+        }
+        node.queue = NONE;
+    }
+
+    private static final class Node<K, V> {
+
+        final K key;
+
+        // 加载中的promise，加载完成后置为null(先写入value与writeTime)
+        volatile JPromise<V> pending;
+        volatile V value;
+        volatile long writeTime;
+
+        final AtomicBoolean refreshing = new AtomicBoolean();
+
+        // 以下由lock保护
+        Node<K, V> prev;
+        Node<K, V> next;
+        int queue;
+
+        Node(K key) {
+            this.key = key;
+        }
+
+        static <K, V> Node<K, V> sentinel() {
+            Node<K, V> node = new Node<>(null);
+            node.prev = node;
+            node.next = node;
+            return node;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package team.qtk.jasync.mutiny;
+
+import io.github.vipcxj.jasync.spec.JPromise;
+
+/**
+ * Promises.generate()的发射器：emit返回的promise在下游有需求时已完成，
+ * 否则挂起到下游请求数据为止；生产者需等待(await)上一次emit完成后再发射下一个元素
+ */
+public interface AsyncEmitter<T> {
+
+    // 下游取消后返回以CancellationException失败的promise
+    JPromise<Void> emit(T item);
+
+    boolean isCancelled();
+}
@@ -0,0 +1,152 @@
+package team.qtk.jasync.mutiny;
+
+import io.github.vipcxj.jasync.spec.JPromise;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import io.smallrye.mutiny.subscription.UniEmitter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * DataLoader式的批量加载：window内(或凑满maxBatchSize个不同key时)各调用方load()的key合并为一批，
+ * 只调用一次batchFunction，再按key分别完成每个调用方的promise。
+ * 同一批中重复的key只请求一次；结果Map中没有的key得到null；batchFunction失败时该批所有调用方失败
+ */
+public class BatchLoader<K, V> {
+
+    private final Function<List<K>, Uni<Map<K, V>>> batchFunction;
+
+    private final int maxBatchSize;
+
+    private final long windowNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // 正在收集key的批次，由lock保护
+    private Batch current;
+
+    BatchLoader(Function<List<K>, Uni<Map<K, V>>> batchFunction, int maxBatchSize, Duration window) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be positive: " + maxBatchSize);
+        }
+        if (window.isNegative()) {
+            throw new IllegalArgumentException("window must not be negative: " + window);
+        }
+        this.batchFunction = batchFunction;
+        this.maxBatchSize = maxBatchSize;
+        this.windowNanos = window.toNanos();
+    }
+
+    // 订阅(await)时key才加入当前批次；调用方取消只影响自己，批次照常执行
+    public JPromise<V> load(K key) {
+        return new UniPromise<>(
+            Uni.createFrom().emitter(emitter -> add(key, emitter)),
+            Promises.getDefaultExecutor()
+        );
+    }
+
+    // 不等window结束，立即执行当前批次
+    public void dispatch() {
+        Batch batch;
+        lock.lock();
+        try {
+            batch = current;
+            current = null;
+        } finally {
+            lock.unlock();
+        }
+        if (batch != null) {
+            batch.dispatch();
+        }
+    }
+
+    private void add(K key, UniEmitter<? super V> emitter) {
+        Batch full = null;
+        lock.lock();
+        try {
+            Batch batch = current;
+            if (batch == null) {
+                Batch created = new Batch();
+                current = created;
+                // 第一个key到达时开始计时
+                created.timer =
+                    Infrastructure
+                        .getDefaultWorkerPool()
+                        .schedule(() -> expire(created), windowNanos, TimeUnit.NANOSECONDS);
+                batch = created;
+            }
+            batch.waiters.computeIfAbsent(key, k -> new ArrayList<>(1)).add(emitter);
+            if (batch.waiters.size() >= maxBatchSize) {
+                full = batch;
+                current = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (full != null) {
+            full.timer.cancel(false);
+            full.dispatch();
+        }
+    }
+
+    private void expire(Batch batch) {
+        lock.lock();
+        try {
+            if (current != batch) {
+                // 已凑满执行或已手动dispatch
+                return;
+            }
+            current = null;
+        } finally {
+            lock.unlock();
+        }
+        batch.dispatch();
+    }
+
+    private final class Batch {
+
+        final Map<K, List<UniEmitter<? super V>>> waiters = new LinkedHashMap<>();
+
+        ScheduledFuture<?> timer;
+
+        // 离开current后不再修改waiters，无需加锁
+        void dispatch() {
+            // 在timer线程上抛出的异常会被ScheduledFuture吞掉，所有调用方都需在此失败
+            try {
+                Uni<Map<K, V>> uni = batchFunction.apply(new ArrayList<>(waiters.keySet()));
+                if (uni == null) {
+                    throw new NullPointerException("batchFunction returned null");
+                }
+                uni.subscribe().with(this::complete, this::fail);
+            } catch (Throwable t) {
+                // 已完成的emitter忽略重复的信号
+                fail(t);
+            }
+        }
+
+        private void complete(Map<K, V> results) {
+            for (Map.Entry<K, List<UniEmitter<? super V>>> entry : waiters.entrySet()) {
+                V value = results != null ? results.get(entry.getKey()) : null;
+                for (UniEmitter<? super V> emitter : entry.getValue()) {
+                    emitter.complete(value);
+                }
+            }
+        }
+
+        private void fail(Throwable error) {
+            for (List<UniEmitter<? super V>> emitters : waiters.values()) {
+                for (UniEmitter<? super V> emitter : emitters) {
+                    emitter.fail(error);
+                }
+            }
+        }
+    }
+}
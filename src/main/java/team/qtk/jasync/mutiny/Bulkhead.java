@@ -0,0 +1,225 @@
+package team.qtk.jasync.mutiny;
+
+import io.github.vipcxj.jasync.spec.JPromise;
+import io.github.vipcxj.jasync.spec.Utils;
+import io.github.vipcxj.jasync.spec.functional.PromiseSupplier;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import io.smallrye.mutiny.subscription.UniEmitter;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 按名称隔离的并发限制(舱壁)：最多maxConcurrent个任务同时执行，超出的在长度为maxQueue的队列中等待。
+ * 等待是promise挂起而非阻塞线程；队列已满时立即拒绝，等待超过queueTimeout时放弃，均以RejectedExecutionException失败。
+ * 任务结束(成功、失败或取消)时许可直接转交队首的等待者
+ */
+public class Bulkhead {
+
+    private static final ConcurrentHashMap<String, Bulkhead> BULKHEADS = new ConcurrentHashMap<>();
+
+    private static final int NEW = 0;
+    private static final int WAITING = 1;
+    private static final int HELD = 2;
+    private static final int DONE = 3;
+
+    private final String name;
+    private final int maxConcurrent;
+    private final int maxQueue;
+
+    // 0表示一直等待
+    private final long queueTimeoutNanos;
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+
+    // 以下由lock保护
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ArrayDeque<Permit> queue = new ArrayDeque<>();
+    private int active;
+
+    Bulkhead(String name, int maxConcurrent, int maxQueue, Duration queueTimeout) {
+        if (maxConcurrent < 1) {
+            throw new IllegalArgumentException("maxConcurrent must be positive: " + maxConcurrent);
+        }
+        if (maxQueue < 0) {
+            throw new IllegalArgumentException("maxQueue must not be negative: " + maxQueue);
+        }
+        if (queueTimeout != null && (queueTimeout.isNegative() || queueTimeout.isZero())) {
+            throw new IllegalArgumentException("queueTimeout must be positive: " + queueTimeout);
+        }
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueue = maxQueue;
+        this.queueTimeoutNanos = queueTimeout != null ? queueTimeout.toNanos() : 0;
+    }
+
+    // 同名的舱壁只创建一次，之后的调用返回已有实例(忽略参数)
+    static Bulkhead of(String name, int maxConcurrent, int maxQueue, Duration queueTimeout) {
+        Bulkhead bulkhead = BULKHEADS.get(name);
+        if (bulkhead != null) {
+            return bulkhead;
+        }
+        return BULKHEADS.computeIfAbsent(name, n -> new Bulkhead(n, maxConcurrent, maxQueue, queueTimeout));
+    }
+
+    // 订阅时申请许可，拿到许可后才调用task；每次订阅独立申请
+    public <T> JPromise<T> execute(PromiseSupplier<T> task) {
+        return new UniPromise<>(
+            Uni
+                .createFrom()
+                .deferred(
+                    () -> {
+                        Permit permit = new Permit();
+                        return Uni
+                            .createFrom()
+                            .<Void>emitter(emitter -> acquire(permit, emitter))
+                            .onItem()
+                            .transformToUni(v -> call(task))
+                            .onTermination()
+                            .invoke(permit::release);
+                    }
+                ),
+            Promises.getDefaultExecutor()
+        );
+    }
+
+    private static <T> Uni<T> call(PromiseSupplier<T> task) {
+        try {
+            return Utils.safeGet(task).unwrap(Uni.class);
+        } catch (Throwable t) {
+            return Uni.createFrom().failure(t);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getActiveCount() {
+        lock.lock();
+        try {
+            return active;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueuedCount() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 队列已满被立即拒绝的次数
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    // 等待超时被放弃的次数
+    public long getTimedOutCount() {
+        return timedOut.sum();
+    }
+
+    private void acquire(Permit permit, UniEmitter<? super Void> emitter) {
+        boolean granted = false;
+        lock.lock();
+        try {
+            if (permit.state == DONE) {
+                // 订阅已被取消
+                return;
+            }
+            if (active < maxConcurrent) {
+                active++;
+                permit.state = HELD;
+                granted = true;
+            } else if (queue.size() < maxQueue) {
+                permit.emitter = emitter;
+                permit.state = WAITING;
+                queue.offer(permit);
+                if (queueTimeoutNanos > 0) {
+                    permit.timer =
+                        Infrastructure
+                            .getDefaultWorkerPool()
+                            .schedule(permit::timeout, queueTimeoutNanos, TimeUnit.NANOSECONDS);
+                }
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (granted) {
+            emitter.complete(null);
+        } else {
+            rejected.increment();
+            emitter.fail(new RejectedExecutionException("bulkhead " + name + " is full"));
+        }
+    }
+
+    private final class Permit {
+
+        // 以下由lock保护
+        int state = NEW;
+        UniEmitter<? super Void> emitter;
+        ScheduledFuture<?> timer;
+
+        // 任务结束或等待中被取消
+        void release() {
+            Permit next = null;
+            lock.lock();
+            try {
+                if (state == WAITING) {
+                    queue.remove(this);
+                    cancelTimer();
+                } else if (state == HELD) {
+                    next = queue.poll();
+                    if (next != null) {
+                        // 许可直接转交，active不变
+                        next.state = HELD;
+                        next.cancelTimer();
+                    } else {
+                        active--;
+                    }
+                }
+                state = DONE;
+            } finally {
+                lock.unlock();
+            }
+            if (next != null) {
+                next.emitter.complete(null);
+            }
+        }
+
+        void timeout() {
+            lock.lock();
+            try {
+                if (state != WAITING) {
+                    return;
+                }
+                queue.remove(this);
+                state = DONE;
+            } finally {
+                lock.unlock();
+            }
+            timedOut.increment();
+            emitter.fail(new RejectedExecutionException("bulkhead " + name + " queue timeout"));
+        }
+
+        private void cancelTimer() {
+            if (timer != null) {
+                timer.cancel(false);
+                timer = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package team.qtk.jasync.mutiny;
+
+import io.github.vipcxj.jasync.spec.JAsync;
+import io.github.vipcxj.jasync.spec.catcher.Catcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 一组捕获的异常类型，按异常类型列表缓存(每个try语句一份)，
+ * 异常类到首个匹配的下标用ClassValue缓存，出错时的匹配为O(1)。
+ * 缓存以ClassValue挂在列表中类加载器层级最深的异常类上，随其类加载器一起回收，每个类最多缓存MAX_ENTRIES个列表
+ */
+final class CatcherTable {
+
+    private static final int MAX_ENTRIES = 256;
+
+    private static final ClassValue<ConcurrentHashMap<List<Class<? extends Throwable>>, CatcherTable>> TABLES =
+        new ClassValue<ConcurrentHashMap<List<Class<? extends Throwable>>, CatcherTable>>() {
+            @Override
+            protected ConcurrentHashMap<List<Class<? extends Throwable>>, CatcherTable> computeValue(Class<?> type) {
+                return new ConcurrentHashMap<>();
+            }
+        };
+
+    private final List<Class<? extends Throwable>> types;
+
+    private final ClassValue<Match> matches = new ClassValue<Match>() {
+        @Override
+        protected Match computeValue(Class<?> type) {
+            for (int i = 0; i < types.size(); ++i) {
+                if (types.get(i).isAssignableFrom(type)) {
+                    return new Match(i);
+                }
+            }
+            return new Match(-1);
+        }
+    };
+
+    private CatcherTable(List<Class<? extends Throwable>> types) {
+        this.types = types;
+    }
+
+    static CatcherTable of(List<Class<? extends Throwable>> types) {
+        if (types.isEmpty()) {
+            return new CatcherTable(List.of());
+        }
+        ConcurrentHashMap<List<Class<? extends Throwable>>, CatcherTable> tables = TABLES.get(owner(types));
+        CatcherTable table = tables.get(types);
+        if (table == null) {
+            List<Class<? extends Throwable>> key = List.copyOf(types);
+            if (tables.size() >= MAX_ENTRIES) {
+                // 动态构造的异常列表过多时不再缓存
+                return new CatcherTable(key);
+            }
+            table = tables.computeIfAbsent(key, CatcherTable::new);
+        }
+        return table;
+    }
+
+    // 同一catch中的异常类都对catch所在类可见，其类加载器位于同一条父链上，取最深的一个
+    private static Class<?> owner(List<Class<? extends Throwable>> types) {
+        Class<?> owner = types.get(0);
+        for (int i = 1; i < types.size(); ++i) {
+            Class<?> type = types.get(i);
+            if (isAncestor(owner.getClassLoader(), type.getClassLoader())) {
+                owner = type;
+            }
+        }
+        return owner;
+    }
+
+    private static boolean isAncestor(ClassLoader ancestor, ClassLoader loader) {
+        if (ancestor == loader) {
+            return false;
+        }
+        for (ClassLoader current = loader; current != null; current = current.getParent()) {
+            if (current == ancestor) {
+                return true;
+            }
+        }
+        return ancestor == null;
+    }
+
+    static <T> CatcherTable ofCatchers(List<Catcher<?, T>> catchers) {
+        List<Class<? extends Throwable>> types = new ArrayList<>(catchers.size());
+        for (Catcher<?, T> catcher : catchers) {
+            types.add(catcher.getExceptionType());
+        }
+        return of(types);
+    }
+
+    // 首个能捕获该异常的下标，没有则为-1
+    int indexOf(Throwable t) {
+        return matches.get(t.getClass()).index;
+    }
+
+    boolean matches(Throwable t) {
+        return indexOf(t) >= 0;
+    }
+
+    boolean mustRethrow(Throwable t) {
+        Match match = matches.get(t.getClass());
+        Boolean rethrow = match.rethrow;
+        if (rethrow == null) {
+            rethrow = JAsync.mustRethrowException(t, types);
+            match.rethrow = rethrow;
+        }
+        return rethrow;
+    }
+
+    private static final class Match {
+
+        final int index;
+
+        // 首次出现该异常类时才计算，并发下重复计算结果一致
+        volatile Boolean rethrow;
+
+        Match(int index) {
+            this.index = index;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package team.qtk.jasync.mutiny;
+
+import io.smallrye.mutiny.Context;
+import io.smallrye.mutiny.subscription.ContextSupport;
+
+import java.util.Arrays;
+
+/**
+ * 已注册的ContextPropagator，注册很少发生，以写时复制数组保存；
+ * 未注册时enter()只有一次volatile读和长度判断，不读取订阅的Context
+ */
+final class ContextPropagation {
+
+    private static final ContextPropagator[] NONE = new ContextPropagator[0];
+
+    private static volatile ContextPropagator[] propagators = NONE;
+
+    private ContextPropagation() {
+    }
+
+    static synchronized void add(ContextPropagator propagator) {
+        ContextPropagator[] current = propagators;
+        ContextPropagator[] next = Arrays.copyOf(current, current.length + 1);
+        next[current.length] = propagator;
+        propagators = next;
+    }
+
+    static synchronized void remove(ContextPropagator propagator) {
+        ContextPropagator[] current = propagators;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == propagator) {
+                ContextPropagator[] next = new ContextPropagator[current.length - 1];
+                System.arraycopy(current, 0, next, 0, i);
+                System.arraycopy(current, i + 1, next, i, current.length - i - 1);
+                propagators = next;
+                return;
+            }
+        }
+    }
+
+    static boolean isActive() {
+        return propagators.length != 0;
+    }
+
+    // 返回的scope需传给exit()，未注册propagator时为null
+    static Object enter(ContextSupport subscriber) {
+        ContextPropagator[] current = propagators;
+        if (current.length == 0) {
+            return null;
+        }
+        return enter(current, subscriber.context());
+    }
+
+    static Object enter(Context context) {
+        ContextPropagator[] current = propagators;
+        if (current.length == 0) {
+            return null;
+        }
+        return enter(current, context);
+    }
+
+    private static Object enter(ContextPropagator[] current, Context context) {
+        Object[] previous = new Object[current.length];
+        for (int i = 0; i < current.length; i++) {
+            previous[i] = current[i].apply(context);
+        }
+        return new Scope(current, previous);
+    }
+
+    static void exit(Object scope) {
+        if (scope == null) {
+            return;
+        }
+        Scope s = (Scope) scope;
+        for (int i = s.propagators.length - 1; i >= 0; i--) {
+            s.propagators[i].restore(s.previous[i]);
+        }
+    }
+
+    // 在上游Context的基础上增加entries，供UniContext使用
+    static Context merge(Context base, Context entries) {
+        // Context可变，每次订阅使用独立的副本
+        Context merged = Context.empty();
+        for (String key : base.keys()) {
+            merged.put(key, base.get(key));
+        }
+        for (String key : entries.keys()) {
+            merged.put(key, entries.get(key));
+        }
+        return merged;
+    }
+
+    private static final class Scope {
+
+        final ContextPropagator[] propagators;
+        final Object[] previous;
+
+        Scope(ContextPropagator[] propagators, Object[] previous) {
+            this.propagators = propagators;
+            this.previous = previous;
+        }
+    }
+}
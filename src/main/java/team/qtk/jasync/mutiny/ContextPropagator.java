@@ -0,0 +1,15 @@
+package team.qtk.jasync.mutiny;
+
+import io.smallrye.mutiny.Context;
+
+/**
+ * 在后续逻辑(await之后的代码、循环体、catch块)执行前，把Mutiny Context中的值安装到当前线程(如MDC、ThreadLocal)，
+ * 执行后恢复。通过Promises.addContextPropagator()注册，未注册任何propagator时不做任何处理
+ */
+public interface ContextPropagator {
+
+    // 返回当前线程原有的状态，执行结束后传给restore
+    Object apply(Context context);
+
+    void restore(Object previous);
+}
@@ -0,0 +1,49 @@
+package team.qtk.jasync.mutiny;
+
+import io.smallrye.mutiny.Context;
+import io.smallrye.mutiny.TimeoutException;
+import io.smallrye.mutiny.subscription.ContextSupport;
+
+/**
+ * 截止时间(System.nanoTime())保存在订阅的Context中，嵌套的await与withDeadline继承并取较早者。
+ * 从未使用过withDeadline时，检查只有一次volatile读
+ */
+final class Deadline {
+
+    static final String KEY = "team.qtk.jasync.deadline";
+
+    private static volatile boolean used;
+
+    private Deadline() {
+    }
+
+    static void markUsed() {
+        if (!used) {
+            used = true;
+        }
+    }
+
+    // 没有截止时间时返回null
+    static Long of(ContextSupport subscriber) {
+        if (!used) {
+            return null;
+        }
+        return of(subscriber.context());
+    }
+
+    static Long of(Context context) {
+        return context.contains(KEY) ? context.get(KEY) : null;
+    }
+
+    static boolean isExpired(Long deadline) {
+        return deadline != null && System.nanoTime() - deadline >= 0;
+    }
+
+    static boolean isExpired(ContextSupport subscriber) {
+        return used && isExpired(of(subscriber.context()));
+    }
+
+    static TimeoutException timeout() {
+        return new TimeoutException();
+    }
+}
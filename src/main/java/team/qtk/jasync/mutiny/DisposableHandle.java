@@ -1,28 +1,190 @@
 package team.qtk.jasync.mutiny;
 
 import io.github.vipcxj.jasync.spec.Handle;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
 import io.smallrye.mutiny.subscription.Cancellable;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.BiConsumer;
 import java.util.function.Function;
 
-public class DisposableHandle implements Handle {
+/**
+ * async()返回的句柄，无锁状态机：PENDING -> COMPLETED / FAILED / CANCELLED，只转换一次。
+ * 结束后按注册顺序执行回调，结束后注册的回调立即执行；取消时回调收到CancellationException
+ */
+public class DisposableHandle<T> implements Handle {
+
+    public enum State {
+        PENDING,
+        COMPLETED,
+        FAILED,
+        CANCELLED
+    }
+
+    private static final VarHandle RESULT;
+    private static final VarHandle CALLBACKS;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            RESULT = lookup.findVarHandle(DisposableHandle.class, "result", Result.class);
+            CALLBACKS = lookup.findVarHandle(DisposableHandle.class, "callbacks", Callback.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    // 已结束，不再接受回调入栈
+    private static final Callback TERMINATED = new Callback(null, null);
 
-    private final Cancellable cancellable;
+    // null表示PENDING
+    private volatile Result result;
 
-    private boolean isCanceled = false;
+    // 回调栈(后注册的在栈顶)
+    private volatile Callback callbacks;
 
-    private final Runnable onCancellation = () -> this.isCanceled = true;
+    private volatile Cancellable cancellable;
 
     public DisposableHandle(Function<Runnable, Cancellable> handler) {
-        this.cancellable = handler.apply(onCancellation);
+        this.cancellable = handler.apply(this::cancelled);
+    }
+
+    private DisposableHandle() {
+    }
+
+    // 订阅uni并记录其结果
+    static <T> DisposableHandle<T> subscribe(Uni<T> uni) {
+        DisposableHandle<T> handle = new DisposableHandle<>();
+        handle.cancellable = uni
+            .onCancellation()
+            .invoke(handle::cancelled)
+            .subscribe()
+            .with(handle::complete, handle::fail);
+        return handle;
+    }
+
+    boolean complete(T value) {
+        return finish(new Result(State.COMPLETED, value, null));
+    }
+
+    boolean fail(Throwable error) {
+        // 没有人关注结果时交给Mutiny的默认处理(记录日志)，与原先subscribe().with(v -> {})一致
+        if (callbacks == null) {
+            Infrastructure.handleDroppedException(error);
+        }
+        return finish(new Result(State.FAILED, null, error));
+    }
+
+    private void cancelled() {
+        finish(new Result(State.CANCELLED, null, new CancellationException()));
     }
 
     @Override
     public void cancel() {
-        cancellable.cancel();
+        if (result == null && finish(new Result(State.CANCELLED, null, new CancellationException()))) {
+            Cancellable cancellable = this.cancellable;
+            if (cancellable != null) {
+                cancellable.cancel();
+            }
+        }
     }
 
     @Override
     public boolean isCanceled() {
-        return isCanceled;
+        return getState() == State.CANCELLED;
+    }
+
+    public boolean isDone() {
+        return result != null;
+    }
+
+    public State getState() {
+        Result result = this.result;
+        return result != null ? result.state : State.PENDING;
+    }
+
+    // 结束时回调(value, error)，成功时error为null；已结束则在当前线程立即执行
+    @SuppressWarnings("unchecked")
+    public DisposableHandle<T> onComplete(BiConsumer<? super T, ? super Throwable> action) {
+        //noinspection unchecked
+        BiConsumer<Object, Throwable> callback = (BiConsumer<Object, Throwable>) action;
+        for (;;) {
+            Callback head = callbacks;
+            if (head == TERMINATED) {
+                run(callback, result);
+                return this;
+            }
+            if (CALLBACKS.compareAndSet(this, head, new Callback(callback, head))) {
+                return this;
+            }
+        }
+    }
+
+    // 不阻塞线程，结果通过回调完成CompletionStage
+    public CompletionStage<T> toCompletionStage() {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        onComplete(
+            (value, error) -> {
+                if (error != null) {
+                    future.completeExceptionally(error);
+                } else {
+                    future.complete(value);
+                }
+            }
+        );
+        return future;
+    }
+
+    private boolean finish(Result result) {
+        if (!RESULT.compareAndSet(this, null, result)) {
+            return false;
+        }
+        Callback head = (Callback) CALLBACKS.getAndSet(this, TERMINATED);
+        // 栈顶是最后注册的，反转后按注册顺序执行
+        Callback ordered = null;
+        for (Callback c = head; c != null; c = c.next) {
+            ordered = new Callback(c.action, ordered);
+        }
+        for (Callback c = ordered; c != null; c = c.next) {
+            run(c.action, result);
+        }
+        return true;
+    }
+
+    private static void run(BiConsumer<Object, Throwable> action, Result result) {
+        try {
+            action.accept(result.value, result.error);
+        } catch (Throwable t) {
+            Infrastructure.handleDroppedException(t);
+        }
+    }
+
+    private static final class Result {
+
+        final State state;
+        final Object value;
+        final Throwable error;
+
+        Result(State state, Object value, Throwable error) {
+            this.state = state;
+            this.value = value;
+            this.error = error;
+        }
+    }
+
+    private static final class Callback {
+
+        final BiConsumer<Object, Throwable> action;
+        final Callback next;
+
+        Callback(BiConsumer<Object, Throwable> action, Callback next) {
+            this.action = action;
+            this.next = next;
+        }
     }
 }
@@ -0,0 +1,99 @@
+package team.qtk.jasync.mutiny;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 以LongAdder计数的内存实现，用于测试或简单的统计导出
+ */
+public class InMemoryPromiseMetrics implements PromiseMetrics {
+
+    private final LongAdder stagesCreated = new LongAdder();
+    private final LongAdder awaitsSuspended = new LongAdder();
+    private final LongAdder awaitsCompletedSynchronously = new LongAdder();
+    private final LongAdder loopIterations = new LongAdder();
+    private final Map<Signal, LongAdder> signals = new EnumMap<>(Signal.class);
+    private final ConcurrentHashMap<Class<?>, LongAdder> exceptionsCaught = new ConcurrentHashMap<>();
+
+    public InMemoryPromiseMetrics() {
+        for (Signal signal : Signal.values()) {
+            signals.put(signal, new LongAdder());
+        }
+    }
+
+    @Override
+    public void stageCreated() {
+        stagesCreated.increment();
+    }
+
+    @Override
+    public void awaitSuspended() {
+        awaitsSuspended.increment();
+    }
+
+    @Override
+    public void awaitCompletedSynchronously() {
+        awaitsCompletedSynchronously.increment();
+    }
+
+    @Override
+    public void loopIteration() {
+        loopIterations.increment();
+    }
+
+    @Override
+    public void signal(Signal signal) {
+        signals.get(signal).increment();
+    }
+
+    @Override
+    public void exceptionCaught(Throwable error) {
+        exceptionsCaught.computeIfAbsent(error.getClass(), k -> new LongAdder()).increment();
+    }
+
+    public long getStagesCreated() {
+        return stagesCreated.sum();
+    }
+
+    public long getAwaitsSuspended() {
+        return awaitsSuspended.sum();
+    }
+
+    public long getAwaitsCompletedSynchronously() {
+        return awaitsCompletedSynchronously.sum();
+    }
+
+    public long getLoopIterations() {
+        return loopIterations.sum();
+    }
+
+    public long getSignals(Signal signal) {
+        return signals.get(signal).sum();
+    }
+
+    public long getExceptionsCaught() {
+        long sum = 0;
+        for (LongAdder adder : exceptionsCaught.values()) {
+            sum += adder.sum();
+        }
+        return sum;
+    }
+
+    public Map<Class<?>, Long> getExceptionsCaughtByType() {
+        Map<Class<?>, Long> result = new HashMap<>();
+        exceptionsCaught.forEach((type, adder) -> result.put(type, adder.sum()));
+        return result;
+    }
+
+    public void reset() {
+        stagesCreated.reset();
+        awaitsSuspended.reset();
+        awaitsCompletedSynchronously.reset();
+        loopIterations.reset();
+        signals.values().forEach(LongAdder::reset);
+        exceptionsCaught.clear();
+    }
+}
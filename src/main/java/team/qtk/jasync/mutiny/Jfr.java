@@ -0,0 +1,60 @@
+package team.qtk.jasync.mutiny;
+
+/**
+ * JFR事件入口。事件默认关闭(@Enabled(false))，需在JFR配置中开启team.qtk.jasync.*事件；
+ * 未录制时每个埋点只有一次isEnabled判断。运行时没有jdk.jfr模块时不加载JfrEvents，埋点为空操作
+ */
+final class Jfr {
+
+    private static final boolean AVAILABLE = isAvailable();
+
+    private Jfr() {
+    }
+
+    private static boolean isAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event", false, Jfr.class.getClassLoader());
+            return true;
+        } catch (Throwable t) {
+            return false;
+        }
+    }
+
+    // 返回已开始计时的事件，未录制时返回null
+    static Object beginStage() {
+        return AVAILABLE ? JfrEvents.beginStage() : null;
+    }
+
+    static void endStage(Object event, Object stage) {
+        if (event != null) {
+            JfrEvents.endStage(event, stage);
+        }
+    }
+
+    // 开始挂起，返回的事件在恢复时提交
+    static Object awaitSuspended(Object stage) {
+        return AVAILABLE ? JfrEvents.awaitSuspended(stage) : null;
+    }
+
+    static void awaitResumed(Object event) {
+        if (event != null) {
+            JfrEvents.awaitResumed(event);
+        }
+    }
+
+    static Object beginLoopBatch() {
+        return AVAILABLE ? JfrEvents.beginLoopBatch() : null;
+    }
+
+    static void endLoopBatch(Object event, String label, int iterations) {
+        if (event != null) {
+            JfrEvents.endLoopBatch(event, label, iterations);
+        }
+    }
+
+    static void promiseFailed(Throwable error) {
+        if (AVAILABLE) {
+            JfrEvents.promiseFailed(error);
+        }
+    }
+}
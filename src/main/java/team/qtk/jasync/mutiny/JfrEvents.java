@@ -0,0 +1,173 @@
+package team.qtk.jasync.mutiny;
+
+import io.github.vipcxj.jasync.spec.BreakException;
+import io.github.vipcxj.jasync.spec.ContinueException;
+import io.github.vipcxj.jasync.spec.ReturnException;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR事件定义，只经由Jfr访问
+ */
+final class JfrEvents {
+
+    private JfrEvents() {
+    }
+
+    // 阶段以resolver的类名标识，lambda的类名包含声明它的@Async方法所在的类
+    private static String stageName(Object stage) {
+        return stage != null ? stage.getClass().getName() : null;
+    }
+
+    static Object beginStage() {
+        AsyncStageExecuted event = new AsyncStageExecuted();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    static void endStage(Object event, Object stage) {
+        AsyncStageExecuted executed = (AsyncStageExecuted) event;
+        executed.end();
+        if (executed.shouldCommit()) {
+            executed.stage = stageName(stage);
+            executed.commit();
+        }
+    }
+
+    static Object awaitSuspended(Object stage) {
+        String name = null;
+        AwaitSuspended suspended = new AwaitSuspended();
+        if (suspended.isEnabled()) {
+            name = stageName(stage);
+            suspended.stage = name;
+            suspended.commit();
+        }
+        AwaitResumed resumed = new AwaitResumed();
+        if (!resumed.isEnabled()) {
+            return null;
+        }
+        resumed.begin();
+        resumed.stage = name != null ? name : stageName(stage);
+        resumed.suspendedThread = Thread.currentThread();
+        return resumed;
+    }
+
+    static void awaitResumed(Object event) {
+        AwaitResumed resumed = (AwaitResumed) event;
+        resumed.end();
+        if (resumed.shouldCommit()) {
+            resumed.threadHop = resumed.suspendedThread != Thread.currentThread();
+            resumed.commit();
+        }
+    }
+
+    static Object beginLoopBatch() {
+        LoopIterationBatch event = new LoopIterationBatch();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    static void endLoopBatch(Object event, String label, int iterations) {
+        LoopIterationBatch batch = (LoopIterationBatch) event;
+        batch.end();
+        if (iterations > 0 && batch.shouldCommit()) {
+            batch.label = label;
+            batch.iterations = iterations;
+            batch.commit();
+        }
+    }
+
+    static void promiseFailed(Throwable error) {
+        // break/continue/return是控制流信号，不是失败
+        if (error instanceof BreakException || error instanceof ContinueException || error instanceof ReturnException) {
+            return;
+        }
+        PromiseFailed event = new PromiseFailed();
+        if (event.isEnabled()) {
+            event.exceptionType = error.getClass();
+            event.message = error.getMessage();
+            event.commit();
+        }
+    }
+
+    @Name("team.qtk.jasync.AsyncStageExecuted")
+    @Label("Async Stage Executed")
+    @Description("then()的后续逻辑(await之后的代码)同步执行的耗时")
+    @Category("JAsync")
+    @Enabled(false)
+    @StackTrace(false)
+    static class AsyncStageExecuted extends Event {
+
+        @Label("Stage")
+        String stage;
+    }
+
+    @Name("team.qtk.jasync.AwaitSuspended")
+    @Label("Await Suspended")
+    @Description("等待的promise未完成，后续逻辑挂起")
+    @Category("JAsync")
+    @Enabled(false)
+    @StackTrace(false)
+    static class AwaitSuspended extends Event {
+
+        @Label("Stage")
+        String stage;
+    }
+
+    @Name("team.qtk.jasync.AwaitResumed")
+    @Label("Await Resumed")
+    @Description("从挂起到恢复执行的耗时，事件线程为恢复执行的线程")
+    @Category("JAsync")
+    @Enabled(false)
+    @StackTrace(false)
+    static class AwaitResumed extends Event {
+
+        @Label("Stage")
+        String stage;
+
+        @Label("Suspended Thread")
+        Thread suspendedThread;
+
+        @Label("Thread Hop")
+        boolean threadHop;
+    }
+
+    @Name("team.qtk.jasync.LoopIterationBatch")
+    @Label("Loop Iteration Batch")
+    @Description("循环在一个线程上连续(未挂起)执行的一批迭代")
+    @Category("JAsync")
+    @Enabled(false)
+    @StackTrace(false)
+    static class LoopIterationBatch extends Event {
+
+        @Label("Label")
+        String label;
+
+        @Label("Iterations")
+        int iterations;
+    }
+
+    @Name("team.qtk.jasync.PromiseFailed")
+    @Label("Promise Failed")
+    @Category("JAsync")
+    @Enabled(false)
+    static class PromiseFailed extends Event {
+
+        @Label("Exception Type")
+        Class<?> exceptionType;
+
+        @Label("Message")
+        String message;
+    }
+}
@@ -0,0 +1,67 @@
+package team.qtk.jasync.mutiny;
+
+import java.util.Iterator;
+import java.util.ServiceLoader;
+
+/**
+ * 埋点入口，未注册PromiseMetrics时每个埋点只是一次volatile读和null判断
+ */
+final class Metrics {
+
+    private static volatile PromiseMetrics current = load();
+
+    private Metrics() {
+    }
+
+    private static PromiseMetrics load() {
+        Iterator<PromiseMetrics> iterator = ServiceLoader.load(PromiseMetrics.class).iterator();
+        return iterator.hasNext() ? iterator.next() : null;
+    }
+
+    static PromiseMetrics get() {
+        return current;
+    }
+
+    static void set(PromiseMetrics metrics) {
+        current = metrics;
+    }
+
+    static void stageCreated() {
+        PromiseMetrics metrics = current;
+        if (metrics != null) {
+            metrics.stageCreated();
+        }
+    }
+
+    static void await(boolean suspended) {
+        PromiseMetrics metrics = current;
+        if (metrics != null) {
+            if (suspended) {
+                metrics.awaitSuspended();
+            } else {
+                metrics.awaitCompletedSynchronously();
+            }
+        }
+    }
+
+    static void loopIteration() {
+        PromiseMetrics metrics = current;
+        if (metrics != null) {
+            metrics.loopIteration();
+        }
+    }
+
+    static void signal(PromiseMetrics.Signal signal) {
+        PromiseMetrics metrics = current;
+        if (metrics != null) {
+            metrics.signal(signal);
+        }
+    }
+
+    static void exceptionCaught(Throwable error) {
+        PromiseMetrics metrics = current;
+        if (metrics != null) {
+            metrics.exceptionCaught(error);
+        }
+    }
+}
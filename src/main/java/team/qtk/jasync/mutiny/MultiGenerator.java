@@ -0,0 +1,178 @@
+package team.qtk.jasync.mutiny;
+
+import io.github.vipcxj.jasync.spec.JPromise;
+import io.github.vipcxj.jasync.spec.Utils;
+import io.github.vipcxj.jasync.spec.functional.PromiseFunction;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.subscription.UniEmitter;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 由@Async生产者发射元素的Publisher，每次订阅执行一次生产者。
+ * 下发、完成与失败都在drain中串行执行；有需求时emit同步下发并返回已完成的promise。
+ * 下游取消后emit返回失败的promise，生产者在下一次emit时结束
+ */
+class MultiGenerator<T> implements Flow.Publisher<T> {
+
+    private final PromiseFunction<AsyncEmitter<T>, Void> generator;
+
+    MultiGenerator(PromiseFunction<AsyncEmitter<T>, Void> generator) {
+        this.generator = generator;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        GeneratorSubscription subscription = new GeneratorSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+        subscription.start();
+    }
+
+    private class GeneratorSubscription implements Flow.Subscription, AsyncEmitter<T> {
+
+        private final Flow.Subscriber<? super T> downstream;
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+
+        // 等待下发的元素，生产者等待emit完成，最多只有一个
+        private volatile T item;
+
+        // 元素未能同步下发时，emit返回的promise在此等待
+        private volatile UniEmitter<? super Void> waiter;
+
+        private volatile boolean cancelled;
+        private volatile boolean finished;
+        private volatile Throwable error;
+
+        // 非法的request(n)，在drain中作为唯一的终止信号下发
+        private volatile Throwable requestError;
+
+        // 只在drain中读写
+        private boolean terminated;
+
+        GeneratorSubscription(Flow.Subscriber<? super T> downstream) {
+            this.downstream = downstream;
+        }
+
+        void start() {
+            JPromise<Void> promise;
+            try {
+                promise = Utils.safeApply(generator, this);
+            } catch (Throwable t) {
+                finish(t);
+                return;
+            }
+            Uni<Void> uni = promise.unwrap(Uni.class);
+            uni.subscribe().with(v -> finish(null), this::finish);
+        }
+
+        private void finish(Throwable failure) {
+            error = failure;
+            finished = true;
+            drain();
+        }
+
+        @Override
+        public JPromise<Void> emit(T item) {
+            if (cancelled) {
+                return UniPromise.error(new CancellationException());
+            }
+            if (item == null) {
+                return UniPromise.error(new NullPointerException("item"));
+            }
+            this.item = item;
+            drain();
+            if (this.item == null) {
+                // drain中因取消而丢弃了元素
+                return cancelled ? UniPromise.error(new CancellationException()) : UniPromise.just(null);
+            }
+            return new UniPromise<>(
+                Uni
+                    .createFrom()
+                    .emitter(
+                        emitter -> {
+                            waiter = emitter;
+                            drain();
+                        }
+                    )
+            );
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                requestError = new IllegalArgumentException("request must be positive: " + n);
+                cancel();
+                return;
+            }
+            requested.getAndUpdate(r -> r + n < 0 ? Long.MAX_VALUE : r + n);
+            drain();
+        }
+
+        // 不直接取消生产者，而是让等待中的emit以CancellationException失败，生产者的finally等逻辑照常执行
+        @Override
+        public void cancel() {
+            cancelled = true;
+            drain();
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            for (;;) {
+                if (cancelled) {
+                    item = null;
+                    UniEmitter<? super Void> w = waiter;
+                    if (w != null) {
+                        waiter = null;
+                        w.fail(new CancellationException());
+                    }
+                    Throwable invalid = requestError;
+                    if (invalid != null && !terminated) {
+                        terminated = true;
+                        downstream.onError(invalid);
+                    }
+                } else if (!terminated) {
+                    T next = item;
+                    if (next != null && requested.get() > 0) {
+                        if (requested.get() != Long.MAX_VALUE) {
+                            requested.decrementAndGet();
+                        }
+                        item = null;
+                        downstream.onNext(next);
+                    }
+                    if (item == null) {
+                        UniEmitter<? super Void> w = waiter;
+                        if (w != null) {
+                            waiter = null;
+                            w.complete(null);
+                        }
+                        if (finished) {
+                            terminated = true;
+                            Throwable failure = error;
+                            if (failure != null) {
+                                downstream.onError(failure);
+                            } else {
+                                downstream.onComplete();
+                            }
+                        }
+                    }
+                }
+                missed = wip.addAndGet(-missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package team.qtk.jasync.mutiny;
+
+import io.github.vipcxj.jasync.spec.JPromise;
+import io.github.vipcxj.jasync.spec.functional.VoidPromiseFunction;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.subscription.UniEmitter;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Multi的异步迭代器：按批向上游请求数据(每消费批大小的3/4再补充一批)，缓存的元素不超过批大小。
+ * hasNext()在有缓存元素或已结束时返回已完成的promise，否则挂起到下一个元素或结束信号到达
+ */
+class MultiIterator<E> implements Flow.Subscriber<E> {
+
+    private final int batchSize;
+
+    // 每消费limit个元素补充请求limit个
+    private final int limit;
+
+    private final Queue<E> queue = new ConcurrentLinkedQueue<>();
+
+    private final AtomicReference<UniEmitter<? super Boolean>> waiter = new AtomicReference<>();
+
+    private volatile Flow.Subscription subscription;
+    private volatile boolean cancelled;
+    private volatile boolean done;
+    private Throwable error;
+
+    // 只在循环中(串行)访问
+    private int consumed;
+
+    MultiIterator(int batchSize) {
+        this.batchSize = batchSize;
+        this.limit = Math.max(1, batchSize - (batchSize >> 2));
+    }
+
+    static <E> Uni<Void> forEach(
+        Multi<E> multi,
+        int batchSize,
+        VoidPromiseFunction<E> block,
+        String label
+    ) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+        }
+        return Uni
+            .createFrom()
+            .deferred(
+                () -> {
+                    MultiIterator<E> iterator = new MultiIterator<>(batchSize);
+                    multi.subscribe(iterator);
+                    return new UniLoop<Void>(
+                        label,
+                        () ->
+                            new UniLoop.Iteration<Void>() {
+                                @Override
+                                JPromise<Boolean> test() {
+                                    return iterator.hasNext();
+                                }
+
+                                @Override
+                                JPromise<?> body() throws Throwable {
+                                    return block.apply(iterator.next());
+                                }
+                            }
+                    )
+                        // break、失败或取消时停止上游，正常结束时为空操作
+                        .onTermination()
+                        .invoke(iterator::cancel);
+                }
+            );
+    }
+
+    JPromise<Boolean> hasNext() {
+        if (!queue.isEmpty()) {
+            return UniLoop.TRUE;
+        }
+        if (done) {
+            return finished();
+        }
+        return new UniPromise<>(
+            Uni
+                .createFrom()
+                .emitter(
+                    emitter -> {
+                        waiter.set(emitter);
+                        // 注册后再检查一次，避免信号在注册前到达而丢失
+                        if (!queue.isEmpty() || done) {
+                            signal();
+                        }
+                    }
+                )
+        );
+    }
+
+    E next() {
+        E item = queue.poll();
+        if (++consumed == limit) {
+            consumed = 0;
+            subscription.request(limit);
+        }
+        return item;
+    }
+
+    void cancel() {
+        cancelled = true;
+        Flow.Subscription subscription = this.subscription;
+        if (subscription != null) {
+            subscription.cancel();
+        }
+    }
+
+    private JPromise<Boolean> finished() {
+        return error != null ? UniPromise.error(error) : UniLoop.FALSE;
+    }
+
+    private void signal() {
+        UniEmitter<? super Boolean> emitter = waiter.getAndSet(null);
+        if (emitter == null) {
+            return;
+        }
+        if (!queue.isEmpty()) {
+            emitter.complete(true);
+        } else if (error != null) {
+            emitter.fail(error);
+        } else {
+            emitter.complete(false);
+        }
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        if (cancelled) {
+            subscription.cancel();
+        } else {
+            subscription.request(batchSize);
+        }
+    }
+
+    @Override
+    public void onNext(E item) {
+        queue.offer(item);
+        signal();
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        error = throwable;
+        done = true;
+        signal();
+    }
+
+    @Override
+    public void onComplete() {
+        done = true;
+        signal();
+    }
+}
@@ -0,0 +1,31 @@
+package team.qtk.jasync.mutiny;
+
+/**
+ * promise执行指标的SPI，通过Promises.setMetrics()或META-INF/services注册，未注册时埋点只有一次字段读取。
+ * 回调在promise执行的线程上同步调用，实现需线程安全且足够轻量(如LongAdder计数)
+ */
+public interface PromiseMetrics {
+
+    enum Signal {
+        BREAK,
+        CONTINUE,
+        RETURN
+    }
+
+    // 创建了基于Uni的promise阶段(已完成的promise不计)
+    default void stageCreated() {}
+
+    // 等待的promise未完成，需要订阅并挂起到其完成
+    default void awaitSuspended() {}
+
+    // 等待的promise已完成，直接取结果继续执行
+    default void awaitCompletedSynchronously() {}
+
+    // 执行了一次循环体
+    default void loopIteration() {}
+
+    default void signal(Signal signal) {}
+
+    // doCatch/doFinally捕获了异常
+    default void exceptionCaught(Throwable error) {}
+}
@@ -2,18 +2,282 @@ package team.qtk.jasync.mutiny;
 
 import io.github.vipcxj.jasync.spec.JPromise;
 import io.github.vipcxj.jasync.spec.Utils;
+import io.github.vipcxj.jasync.spec.functional.PromiseFunction;
 import io.github.vipcxj.jasync.spec.functional.PromiseSupplier;
+import io.github.vipcxj.jasync.spec.functional.VoidPromiseFunction;
 import io.github.vipcxj.jasync.spec.spi.PromiseProvider;
+import io.smallrye.mutiny.CompositeException;
+import io.smallrye.mutiny.Context;
+import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
 public class Promises implements PromiseProvider {
 
+    private static volatile Executor defaultExecutor;
+
     public static <T> JPromise<T> from(Uni<T> uni) {
-        return new UniPromise<>(uni);
+        return new UniPromise<>(uni, defaultExecutor);
+    }
+
+    // 后续逻辑(await之后的代码)在executor上执行，已在该executor上时不再切换线程
+    public static <T> JPromise<T> from(Uni<T> uni, Executor executor) {
+        return new UniPromise<>(uni, executor);
+    }
+
+    // 上游只订阅一次，多次then/await/block共享同一结果
+    public static <T> JPromise<T> memoize(Uni<T> uni) {
+        return new UniPromise<>(uni, defaultExecutor, true);
+    }
+
+    // 在@Async方法中逐个处理Multi的元素，按batchSize批量请求(背压)，不必先收集为List
+    public static <E> JPromise<Void> doForEachMulti(Multi<E> multi, int batchSize, VoidPromiseFunction<E> block) {
+        return new UniPromise<>(MultiIterator.forEach(multi, batchSize, block, null), defaultExecutor);
+    }
+
+    public static <E> JPromise<Void> doForEachMulti(Multi<E> multi, VoidPromiseFunction<E> block) {
+        return doForEachMulti(multi, Flow.defaultBufferSize(), block);
+    }
+
+    // 异步生成器：generator通过emitter逐个发射元素，下游无需求时emit挂起生产者(背压)，
+    // generator返回的promise完成时Multi结束，每次订阅执行一次generator
+    public static <T> Multi<T> generate(PromiseFunction<AsyncEmitter<T>, Void> generator) {
+        return Multi.createFrom().publisher(new MultiGenerator<>(generator));
+    }
+
+    // 并发for-each：最多maxConcurrency个循环体同时执行，break或失败时取消其余循环体
+    public static <E> JPromise<Void> doForEachParallel(
+        Iterable<E> iterable,
+        int maxConcurrency,
+        VoidPromiseFunction<E> block
+    ) {
+        return new UniPromise<>(UniParallel.forEach(iterable, maxConcurrency, block, null), defaultExecutor);
+    }
+
+    public static <E> JPromise<Void> doForEachParallel(E[] array, int maxConcurrency, VoidPromiseFunction<E> block) {
+        return new UniPromise<>(UniParallel.forEach(array, maxConcurrency, block, null), defaultExecutor);
+    }
+
+    // 异步缓存：最多maximumSize个条目，写入expireAfterWrite后过期(null表示不过期)
+    public static <K, V> AsyncCache<K, V> cache(int maximumSize, Duration expireAfterWrite) {
+        return new AsyncCache<>(maximumSize, expireAfterWrite, null);
+    }
+
+    // 写入refreshAfterWrite后的第一次命中在后台重新加载，加载完成前仍返回旧值
+    public static <K, V> AsyncCache<K, V> cache(
+        int maximumSize,
+        Duration expireAfterWrite,
+        Duration refreshAfterWrite
+    ) {
+        return new AsyncCache<>(maximumSize, expireAfterWrite, refreshAfterWrite);
+    }
+
+    // 批量加载：window内或凑满maxBatchSize个key时合并为一次batchFunction调用
+    public static <K, V> BatchLoader<K, V> batchLoader(
+        Function<List<K>, Uni<Map<K, V>>> batchFunction,
+        int maxBatchSize,
+        Duration window
+    ) {
+        return new BatchLoader<>(batchFunction, maxBatchSize, window);
+    }
+
+    // 对冲请求：delay内未完成时再调用一次supplier，最多maxAttempts次，取第一个成功的结果并取消其余请求
+    public static <T> JPromise<T> hedge(PromiseSupplier<T> supplier, Duration delay, int maxAttempts) {
+        return from(UniHedge.hedge(supplier, delay.toNanos(), null, maxAttempts), defaultExecutor);
+    }
+
+    // 延迟取delay记录的最近耗时分位数，同一类请求应共享同一个AdaptiveDelay
+    public static <T> JPromise<T> hedge(PromiseSupplier<T> supplier, AdaptiveDelay delay, int maxAttempts) {
+        return from(UniHedge.hedge(supplier, 0, delay, maxAttempts), defaultExecutor);
+    }
+
+    // percentile为(0, 1]内的分位数，如0.95；样本不足时使用initialDelay
+    public static AdaptiveDelay adaptiveDelay(double percentile, Duration initialDelay) {
+        return new AdaptiveDelay(percentile, initialDelay);
+    }
+
+    // 按名称取得舱壁(首次调用时以这些参数创建)：最多maxConcurrent个任务同时执行，最多maxQueue个等待，
+    // 等待超过queueTimeout(null表示一直等待)或队列已满时以RejectedExecutionException失败
+    public static Bulkhead bulkhead(String name, int maxConcurrent, int maxQueue, Duration queueTimeout) {
+        return Bulkhead.of(name, maxConcurrent, maxQueue, queueTimeout);
+    }
+
+    // 全部成功时按顺序返回结果；任一失败时立即失败并取消其余promise
+    @SuppressWarnings("unchecked")
+    public static <T> JPromise<List<T>> all(Collection<? extends JPromise<? extends T>> promises) {
+        if (promises.isEmpty()) {
+            return UniPromise.just(new ArrayList<>());
+        }
+        return from(
+            Uni.combine().all().unis(unis(promises)).combinedWith(results -> (List<T>) results),
+            defaultExecutor
+        );
+    }
+
+    @SafeVarargs
+    public static <T> JPromise<List<T>> all(JPromise<? extends T>... promises) {
+        return all(Arrays.asList(promises));
+    }
+
+    // 等待全部结束，按顺序返回每个promise的结果或异常，不会失败
+    @SuppressWarnings("unchecked")
+    public static <T> JPromise<List<Settled<T>>> allSettled(Collection<? extends JPromise<? extends T>> promises) {
+        if (promises.isEmpty()) {
+            return UniPromise.just(new ArrayList<>());
+        }
+        List<Uni<Settled<T>>> settled = new ArrayList<>(promises.size());
+        for (Uni<T> uni : Promises.<T>unis(promises)) {
+            settled.add(uni.onItemOrFailure().transform((v, t) -> t != null ? Settled.rejected(t) : Settled.fulfilled(v)));
+        }
+        return from(
+            Uni.combine().all().unis(settled).combinedWith(results -> (List<Settled<T>>) results),
+            defaultExecutor
+        );
+    }
+
+    @SafeVarargs
+    public static <T> JPromise<List<Settled<T>>> allSettled(JPromise<? extends T>... promises) {
+        return allSettled(Arrays.asList(promises));
+    }
+
+    // 第一个成功的结果，并取消其余promise；全部失败时以CompositeException失败
+    public static <T> JPromise<T> any(Collection<? extends JPromise<? extends T>> promises) {
+        if (promises.isEmpty()) {
+            return UniPromise.error(new NoSuchElementException("no promises"));
+        }
+        List<Uni<T>> unis = unis(promises);
+        return from(
+            Uni
+                .createFrom()
+                .deferred(
+                    () -> {
+                        // 每次订阅独立计数，失败的promise不结束竞争，最后一个失败时汇总所有异常
+                        Throwable[] failures = new Throwable[unis.size()];
+                        AtomicInteger remaining = new AtomicInteger(unis.size());
+                        List<Uni<T>> candidates = new ArrayList<>(unis.size());
+                        for (int i = 0; i < unis.size(); i++) {
+                            int index = i;
+                            candidates.add(
+                                unis
+                                    .get(i)
+                                    .onFailure()
+                                    .recoverWithUni(
+                                        t -> {
+                                            failures[index] = t;
+                                            if (remaining.decrementAndGet() == 0) {
+                                                return Uni.createFrom().failure(new CompositeException(failures));
+                                            }
+                                            return Uni.createFrom().nothing();
+                                        }
+                                    )
+                            );
+                        }
+                        return Uni.combine().any().of(candidates);
+                    }
+                ),
+            defaultExecutor
+        );
+    }
+
+    @SafeVarargs
+    public static <T> JPromise<T> any(JPromise<? extends T>... promises) {
+        return any(Arrays.asList(promises));
+    }
+
+    // 第一个结束的结果(成功或失败)，并取消其余promise
+    public static <T> JPromise<T> race(Collection<? extends JPromise<? extends T>> promises) {
+        if (promises.isEmpty()) {
+            return UniPromise.error(new NoSuchElementException("no promises"));
+        }
+        return from(Uni.combine().any().of(unis(promises)), defaultExecutor);
+    }
+
+    @SafeVarargs
+    public static <T> JPromise<T> race(JPromise<? extends T>... promises) {
+        return race(Arrays.asList(promises));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> List<Uni<T>> unis(Collection<? extends JPromise<? extends T>> promises) {
+        List<Uni<T>> unis = new ArrayList<>(promises.size());
+        for (JPromise<? extends T> promise : promises) {
+            unis.add(promise.unwrap(Uni.class));
+        }
+        return unis;
+    }
+
+    // from(uni)默认使用的executor，null表示在完成Uni的线程上继续执行
+    public static void setDefaultExecutor(Executor executor) {
+        defaultExecutor = executor;
+    }
+
+    public static Executor getDefaultExecutor() {
+        return defaultExecutor;
+    }
+
+    // 注册执行指标，null表示关闭；未调用时使用META-INF/services中的PromiseMetrics实现(若有)
+    public static void setMetrics(PromiseMetrics metrics) {
+        Metrics.set(metrics);
+    }
+
+    public static PromiseMetrics getMetrics() {
+        return Metrics.get();
+    }
+
+    // 当前订阅的Mutiny Context，值由withContext()或Uni订阅时的Context传入，跨await保持
+    public static JPromise<Context> context() {
+        return new UniPromise<>(Uni.createFrom().context(context -> Uni.createFrom().item(context)));
+    }
+
+    // 在promise及其嵌套的await中可见的Context值，不影响调用方的Context
+    public static <T> JPromise<T> withContext(JPromise<T> promise, Context entries) {
+        return new UniPromise<>(new UniContext<T>(promise.unwrap(Uni.class), entries), defaultExecutor);
+    }
+
+    // promise及其嵌套的await须在timeout内完成(调用方有更早的截止时间时以其为准)，
+    // 超时后取消执行中的promise，未开始的后续逻辑与循环不再执行，以TimeoutException失败
+    public static <T> JPromise<T> withDeadline(JPromise<T> promise, Duration timeout) {
+        return new UniPromise<>(new UniDeadline<T>(promise.unwrap(Uni.class), timeout), defaultExecutor);
+    }
+
+    // 距截止时间的剩余时间，没有截止时间时为null
+    public static JPromise<Duration> remainingTime() {
+        return new UniPromise<>(
+            Uni
+                .createFrom()
+                .context(
+                    context -> {
+                        Long deadline = Deadline.of(context);
+                        return Uni
+                            .createFrom()
+                            .item(deadline != null ? Duration.ofNanos(Math.max(0, deadline - System.nanoTime())) : null);
+                    }
+                )
+        );
+    }
+
+    // 恢复执行前把Context中的值安装到当前线程(如MDC)，执行后还原
+    public static void addContextPropagator(ContextPropagator propagator) {
+        ContextPropagation.add(propagator);
+    }
+
+    public static void removeContextPropagator(ContextPropagator propagator) {
+        ContextPropagation.remove(propagator);
     }
 
     public <T> JPromise<T> just(T value) {
-        return new UniPromise<>(Uni.createFrom().item(value));
+        return UniPromise.just(value);
     }
 
     public <T> JPromise<T> defer(PromiseSupplier<T> block) {
@@ -34,6 +298,6 @@ public class Promises implements PromiseProvider {
 
     @Override
     public <T> JPromise<T> error(Throwable t) {
-        return from(Uni.createFrom().failure(t));
+        return UniPromise.error(t);
     }
 }
@@ -0,0 +1,44 @@
+package team.qtk.jasync.mutiny;
+
+/**
+ * Promises.allSettled()中单个promise的结果：成功时error为null
+ */
+public final class Settled<T> {
+
+    private final T value;
+    private final Throwable error;
+
+    private Settled(T value, Throwable error) {
+        this.value = value;
+        this.error = error;
+    }
+
+    static <T> Settled<T> fulfilled(T value) {
+        return new Settled<>(value, null);
+    }
+
+    static <T> Settled<T> rejected(Throwable error) {
+        return new Settled<>(null, error);
+    }
+
+    public boolean isFulfilled() {
+        return error == null;
+    }
+
+    public boolean isRejected() {
+        return error != null;
+    }
+
+    public T getValue() {
+        return value;
+    }
+
+    public Throwable getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return isFulfilled() ? "Fulfilled(" + value + ")" : "Rejected(" + error + ")";
+    }
+}
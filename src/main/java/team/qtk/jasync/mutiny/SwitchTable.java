@@ -0,0 +1,87 @@
+package team.qtk.jasync.mutiny;
+
+import io.github.vipcxj.jasync.spec.functional.VoidPromiseSupplier;
+import io.github.vipcxj.jasync.spec.switchexpr.ICase;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * switch语句的跳转表：以第一个case body的类(通常每个switch语句唯一)找到缓存，
+ * 常量(int/char/String/enum等)到匹配的case下标首次线性查找后缓存，之后为一次哈希查找。
+ * 共用body类的不同switch语句可能共用同一缓存，因此命中时用该下标的case核对，核对失败时重新线性查找；
+ * 只缓存非default分支的匹配(case常量互不相同，核对一次即可确认)，default与无匹配每次线性查找。
+ * 缓存以ClassValue挂在body类上，随类(及其类加载器)一起回收
+ */
+final class SwitchTable {
+
+    private static final int MAX_ENTRIES = 1024;
+
+    private static final ClassValue<SwitchTable> TABLES = new ClassValue<SwitchTable>() {
+        @Override
+        protected SwitchTable computeValue(Class<?> type) {
+            return new SwitchTable();
+        }
+    };
+
+    // 值 -> 匹配的case下标
+    private final ConcurrentHashMap<Object, Integer> starts = new ConcurrentHashMap<>();
+
+    private SwitchTable() {
+    }
+
+    /**
+     * 返回匹配的case下标，从该下标起的case依次执行(fall-through)，无匹配时返回-1
+     */
+    static <C> int indexOf(C value, List<? extends ICase<C>> cases) {
+        SwitchTable table = isConstant(value) ? tableOf(cases) : null;
+        if (table == null) {
+            return decode(scan(value, cases), cases.size());
+        }
+        Integer start = table.starts.get(value);
+        if (start != null && start < cases.size() && cases.get(start).is(value, false)) {
+            return start;
+        }
+        int scanned = scan(value, cases);
+        if (scanned >= 0 && scanned < cases.size() && table.starts.size() < MAX_ENTRIES) {
+            table.starts.put(value, scanned);
+        }
+        return decode(scanned, cases.size());
+    }
+
+    private static boolean isConstant(Object value) {
+        return (
+            value instanceof Integer ||
+            value instanceof String ||
+            value instanceof Enum ||
+            value instanceof Character ||
+            value instanceof Short ||
+            value instanceof Byte
+        );
+    }
+
+    private static <C> SwitchTable tableOf(List<? extends ICase<C>> cases) {
+        for (ICase<C> aCase : cases) {
+            VoidPromiseSupplier body = aCase.getBody();
+            if (body != null) {
+                return TABLES.get(body.getClass());
+            }
+        }
+        return null;
+    }
+
+    private static <C> int scan(C value, List<? extends ICase<C>> cases) {
+        for (int i = 0; i < 2; ++i) {
+            for (int j = 0; j < cases.size(); ++j) {
+                if (cases.get(j).is(value, i != 0)) {
+                    return i == 0 ? j : j + cases.size();
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static int decode(int start, int size) {
+        return start < 0 ? -1 : start % size;
+    }
+}
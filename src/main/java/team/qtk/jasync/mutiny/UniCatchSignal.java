@@ -0,0 +1,67 @@
+package team.qtk.jasync.mutiny;
+
+import io.github.vipcxj.jasync.spec.BreakException;
+import io.github.vipcxj.jasync.spec.ContinueException;
+import io.github.vipcxj.jasync.spec.ReturnException;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.operators.AbstractUni;
+import io.smallrye.mutiny.operators.UniOperator;
+import io.smallrye.mutiny.operators.uni.UniOperatorProcessor;
+import io.smallrye.mutiny.subscription.UniSubscriber;
+
+/**
+ * 把return信号转换为结果的单个操作符，替代onFailure().recoverWithUni()等多级操作符，
+ * 信号不再经过Mutiny的失败恢复流程；break/continue由循环与switch操作符自身处理
+ */
+class UniCatchSignal<I, O> extends UniOperator<I, O> {
+
+    private UniCatchSignal(Uni<I> upstream) {
+        super(upstream);
+    }
+
+    // return信号转换为其返回值，正常结束时结果为null
+    static <O> Uni<O> catchReturn(Uni<?> upstream) {
+        return new UniCatchSignal<>(upstream);
+    }
+
+    static boolean isBreak(Throwable t, String label) {
+        return t instanceof BreakException && ((BreakException) t).matchLabel(label);
+    }
+
+    static boolean isContinue(Throwable t, String label) {
+        return t instanceof ContinueException && ((ContinueException) t).matchLabel(label);
+    }
+
+    @Override
+    public void subscribe(UniSubscriber<? super O> subscriber) {
+        AbstractUni.subscribe(upstream(), new UniCatchSignalProcessor(subscriber));
+    }
+
+    private class UniCatchSignalProcessor extends UniOperatorProcessor<I, O> {
+
+        UniCatchSignalProcessor(UniSubscriber<? super O> downstream) {
+            super(downstream);
+        }
+
+        @Override
+        public void onItem(I item) {
+            if (!isCancelled()) {
+                downstream.onItem(null);
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void onFailure(Throwable failure) {
+            if (isCancelled()) {
+                super.onFailure(failure);
+            } else if (failure instanceof ReturnException) {
+                Metrics.signal(PromiseMetrics.Signal.RETURN);
+                //noinspection unchecked
+                downstream.onItem((O) ((ReturnException) failure).getValue());
+            } else {
+                super.onFailure(failure);
+            }
+        }
+    }
+}
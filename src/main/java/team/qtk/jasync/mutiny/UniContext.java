@@ -0,0 +1,41 @@
+package team.qtk.jasync.mutiny;
+
+import io.smallrye.mutiny.Context;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.operators.AbstractUni;
+import io.smallrye.mutiny.operators.UniOperator;
+import io.smallrye.mutiny.operators.uni.UniOperatorProcessor;
+import io.smallrye.mutiny.subscription.UniSubscriber;
+
+/**
+ * 为上游(包括其中嵌套await的promise)提供附加了entries的Context，下游的Context不受影响
+ */
+class UniContext<T> extends UniOperator<T, T> {
+
+    private final Context entries;
+
+    UniContext(Uni<T> upstream, Context entries) {
+        super(upstream);
+        this.entries = entries;
+    }
+
+    @Override
+    public void subscribe(UniSubscriber<? super T> subscriber) {
+        AbstractUni.subscribe(upstream(), new UniContextProcessor(subscriber));
+    }
+
+    private class UniContextProcessor extends UniOperatorProcessor<T, T> {
+
+        private final Context context;
+
+        UniContextProcessor(UniSubscriber<? super T> downstream) {
+            super(downstream);
+            this.context = ContextPropagation.merge(super.context(), entries);
+        }
+
+        @Override
+        public Context context() {
+            return context;
+        }
+    }
+}
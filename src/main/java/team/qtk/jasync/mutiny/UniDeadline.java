@@ -0,0 +1,120 @@
+package team.qtk.jasync.mutiny;
+
+import io.smallrye.mutiny.Context;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.helpers.EmptyUniSubscription;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import io.smallrye.mutiny.operators.AbstractUni;
+import io.smallrye.mutiny.operators.UniOperator;
+import io.smallrye.mutiny.operators.uni.UniOperatorProcessor;
+import io.smallrye.mutiny.subscription.UniSubscriber;
+import io.smallrye.mutiny.subscription.UniSubscription;
+
+import java.time.Duration;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 截止时间操作符：截止时间取timeout与上游Context中已有截止时间的较早者，并通过Context传给嵌套的await；
+ * 订阅时已超时则不订阅上游直接失败，到期时取消上游并以TimeoutException失败
+ */
+class UniDeadline<T> extends UniOperator<T, T> {
+
+    private final long timeoutNanos;
+
+    UniDeadline(Uni<T> upstream, Duration timeout) {
+        super(upstream);
+        this.timeoutNanos = timeout.toNanos();
+        Deadline.markUsed();
+    }
+
+    @Override
+    public void subscribe(UniSubscriber<? super T> subscriber) {
+        long now = System.nanoTime();
+        long deadline = now + timeoutNanos;
+        Long inherited = Deadline.of(subscriber.context());
+        if (inherited != null && inherited - deadline < 0) {
+            deadline = inherited;
+        }
+        long remaining = deadline - now;
+        if (remaining <= 0) {
+            subscriber.onSubscribe(EmptyUniSubscription.DONE);
+            subscriber.onFailure(Deadline.timeout());
+            return;
+        }
+        UniDeadlineProcessor processor = new UniDeadlineProcessor(subscriber, deadline);
+        AbstractUni.subscribe(upstream(), processor);
+        processor.schedule(remaining);
+    }
+
+    private class UniDeadlineProcessor extends UniOperatorProcessor<T, T> {
+
+        private final Context context;
+
+        private volatile ScheduledFuture<?> timer;
+
+        UniDeadlineProcessor(UniSubscriber<? super T> downstream, long deadline) {
+            super(downstream);
+            this.context = ContextPropagation.merge(super.context(), Context.of(Deadline.KEY, deadline));
+        }
+
+        void schedule(long remaining) {
+            if (isCancelled()) {
+                return;
+            }
+            timer = Infrastructure.getDefaultWorkerPool().schedule(this::expire, remaining, TimeUnit.NANOSECONDS);
+            // 定时器创建前已结束
+            if (isCancelled()) {
+                timer.cancel(false);
+            }
+        }
+
+        private void expire() {
+            UniSubscription subscription = getAndSetUpstreamSubscription(EmptyUniSubscription.CANCELLED);
+            if (subscription != EmptyUniSubscription.CANCELLED) {
+                if (subscription != null) {
+                    subscription.cancel();
+                }
+                downstream.onFailure(Deadline.timeout());
+            }
+        }
+
+        private void stopTimer() {
+            ScheduledFuture<?> timer = this.timer;
+            if (timer != null) {
+                timer.cancel(false);
+            }
+        }
+
+        @Override
+        public Context context() {
+            return context;
+        }
+
+        @Override
+        public void onItem(T item) {
+            UniSubscription subscription = getAndSetUpstreamSubscription(EmptyUniSubscription.CANCELLED);
+            if (subscription != EmptyUniSubscription.CANCELLED) {
+                stopTimer();
+                downstream.onItem(item);
+            }
+        }
+
+        @Override
+        public void onFailure(Throwable failure) {
+            UniSubscription subscription = getAndSetUpstreamSubscription(EmptyUniSubscription.CANCELLED);
+            if (subscription != EmptyUniSubscription.CANCELLED) {
+                stopTimer();
+                downstream.onFailure(failure);
+            } else {
+                Infrastructure.handleDroppedException(failure);
+            }
+        }
+
+        @Override
+        public void cancel() {
+            stopTimer();
+            super.cancel();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package team.qtk.jasync.mutiny;
+
+import io.github.vipcxj.jasync.spec.JPromise;
+import io.github.vipcxj.jasync.spec.Utils;
+import io.github.vipcxj.jasync.spec.functional.VoidPromiseSupplier;
+import io.smallrye.mutiny.Context;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.helpers.EmptyUniSubscription;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import io.smallrye.mutiny.operators.AbstractUni;
+import io.smallrye.mutiny.operators.UniOperator;
+import io.smallrye.mutiny.operators.uni.UniOperatorProcessor;
+import io.smallrye.mutiny.subscription.UniSubscriber;
+import io.smallrye.mutiny.subscription.UniSubscription;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * doFinally()的专用操作符：成功、失败(包括break/continue/return信号)与取消时都执行一次finally块。
+ * finally块失败时以其异常结束；取消时finally块独立执行，结果不再下发
+ */
+class UniFinally<T> extends UniOperator<T, T> {
+
+    private final UniPromise<T> promise;
+    private final VoidPromiseSupplier block;
+
+    UniFinally(Uni<T> upstream, UniPromise<T> promise, VoidPromiseSupplier block) {
+        super(upstream);
+        this.promise = promise;
+        this.block = block;
+    }
+
+    @Override
+    public void subscribe(UniSubscriber<? super T> subscriber) {
+        AbstractUni.subscribe(upstream(), new UniFinallyProcessor(subscriber));
+    }
+
+    private class UniFinallyProcessor extends UniOperatorProcessor<T, T> {
+
+        private final AtomicBoolean started = new AtomicBoolean();
+
+        UniFinallyProcessor(UniSubscriber<? super T> downstream) {
+            super(downstream);
+        }
+
+        @Override
+        public void onItem(T item) {
+            if (isCancelled()) {
+                return;
+            }
+            promise.resolve(item);
+            runFinally(item, null);
+        }
+
+        @Override
+        public void onFailure(Throwable failure) {
+            if (isCancelled()) {
+                Infrastructure.handleDroppedException(failure);
+                return;
+            }
+            promise.complete(null, failure);
+            runFinally(null, failure);
+        }
+
+        @Override
+        public void cancel() {
+            if (started.compareAndSet(false, true)) {
+                runDetached();
+            }
+            super.cancel();
+        }
+
+        private void runFinally(T item, Throwable failure) {
+            if (!started.compareAndSet(false, true)) {
+                return;
+            }
+            JPromise<Void> next;
+            Object scope = ContextPropagation.enter(this);
+            try {
+                next = Utils.safeGetVoid(block);
+            } catch (Throwable t) {
+                finish(null, t);
+                return;
+            } finally {
+                ContextPropagation.exit(scope);
+            }
+            if (next instanceof UniPromise && ((UniPromise<Void>) next).isImmediate()) {
+                Throwable error = ((UniPromise<Void>) next).getImmediateError();
+                finish(item, error != null ? error : failure);
+                return;
+            }
+            Uni<Void> uni;
+            try {
+                uni = next.unwrap(Uni.class);
+            } catch (Throwable t) {
+                finish(null, t);
+                return;
+            }
+            AbstractUni.subscribe(
+                uni,
+                new UniSubscriber<Void>() {
+                    @Override
+                    public void onSubscribe(UniSubscription subscription) {
+                        // finally块在取消后仍执行完毕，不保存其订阅
+                    }
+
+                    @Override
+                    public void onItem(Void ignored) {
+                        finish(item, failure);
+                    }
+
+                    @Override
+                    public void onFailure(Throwable error) {
+                        finish(null, error);
+                    }
+
+                    @Override
+                    public Context context() {
+                        return UniFinallyProcessor.this.context();
+                    }
+                }
+            );
+        }
+
+        private void finish(T item, Throwable failure) {
+            if (getAndSetUpstreamSubscription(EmptyUniSubscription.CANCELLED) == EmptyUniSubscription.CANCELLED) {
+                return;
+            }
+            if (failure != null) {
+                downstream.onFailure(failure);
+            } else {
+                downstream.onItem(item);
+            }
+        }
+
+        private void runDetached() {
+            try {
+                JPromise<Void> next;
+                Object scope = ContextPropagation.enter(this);
+                try {
+                    next = Utils.safeGetVoid(block);
+                } finally {
+                    ContextPropagation.exit(scope);
+                }
+                if (!(next instanceof UniPromise && ((UniPromise<Void>) next).isImmediate())) {
+                    next.<Uni<Void>>unwrap(Uni.class).subscribe().with(v -> {}, Infrastructure::handleDroppedException);
+                }
+            } catch (Throwable t) {
+                Infrastructure.handleDroppedException(t);
+            }
+        }
+    }
+}
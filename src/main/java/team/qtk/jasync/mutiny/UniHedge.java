@@ -0,0 +1,202 @@
+package team.qtk.jasync.mutiny;
+
+import io.github.vipcxj.jasync.spec.Utils;
+import io.github.vipcxj.jasync.spec.functional.PromiseSupplier;
+import io.smallrye.mutiny.CompositeException;
+import io.smallrye.mutiny.Context;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import io.smallrye.mutiny.operators.AbstractUni;
+import io.smallrye.mutiny.subscription.UniEmitter;
+import io.smallrye.mutiny.subscription.UniSubscriber;
+import io.smallrye.mutiny.subscription.UniSubscription;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 对冲请求：先发起一次，delay内未完成时再发起一次，最多maxAttempts次；取第一个成功的结果并取消其余请求。
+ * 某次失败且没有其他执行中的请求时立即发起下一次；全部失败时以CompositeException失败(只有一次时为其异常)
+ */
+final class UniHedge {
+
+    private UniHedge() {
+    }
+
+    static <T> Uni<T> hedge(PromiseSupplier<T> supplier, long delayNanos, AdaptiveDelay adaptive, int maxAttempts) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be positive: " + maxAttempts);
+        }
+        return Uni
+            .createFrom()
+            .emitter(
+                emitter -> {
+                    Hedge<T> hedge = new Hedge<>(emitter, supplier, delayNanos, adaptive, maxAttempts);
+                    // 完成、失败或下游取消时都取消其余请求
+                    emitter.onTermination(hedge::cancelAll);
+                    hedge.start();
+                }
+            );
+    }
+
+    private static final class Hedge<T> {
+
+        private final UniEmitter<? super T> emitter;
+        private final PromiseSupplier<T> supplier;
+        private final long delayNanos;
+        private final AdaptiveDelay adaptive;
+        private final int maxAttempts;
+
+        // 以下由this保护
+        private final UniSubscription[] running;
+        private final Throwable[] failures;
+        private int started;
+        private int failed;
+        private boolean done;
+        private ScheduledFuture<?> timer;
+        private long firstStart;
+
+        Hedge(
+            UniEmitter<? super T> emitter,
+            PromiseSupplier<T> supplier,
+            long delayNanos,
+            AdaptiveDelay adaptive,
+            int maxAttempts
+        ) {
+            this.emitter = emitter;
+            this.supplier = supplier;
+            this.delayNanos = delayNanos;
+            this.adaptive = adaptive;
+            this.maxAttempts = maxAttempts;
+            this.running = new UniSubscription[maxAttempts];
+            this.failures = new Throwable[maxAttempts];
+        }
+
+        void start() {
+            int index;
+            synchronized (this) {
+                if (done || started == maxAttempts) {
+                    return;
+                }
+                index = started++;
+                if (index == 0) {
+                    firstStart = System.nanoTime();
+                }
+                if (started < maxAttempts) {
+                    long delay = adaptive != null ? adaptive.delayNanos() : delayNanos;
+                    timer = Infrastructure.getDefaultWorkerPool().schedule(this::start, delay, TimeUnit.NANOSECONDS);
+                }
+            }
+            Uni<T> uni;
+            try {
+                uni = Utils.safeGet(supplier).unwrap(Uni.class);
+            } catch (Throwable t) {
+                uni = Uni.createFrom().failure(t);
+            }
+            AbstractUni.subscribe(uni, new Attempt(index));
+        }
+
+        void cancelAll() {
+            UniSubscription[] subscriptions;
+            synchronized (this) {
+                done = true;
+                cancelTimer();
+                subscriptions = running.clone();
+            }
+            for (UniSubscription subscription : subscriptions) {
+                if (subscription != null) {
+                    subscription.cancel();
+                }
+            }
+        }
+
+        private void cancelTimer() {
+            if (timer != null) {
+                timer.cancel(false);
+                timer = null;
+            }
+        }
+
+        private void succeeded(int index, T item) {
+            long elapsed;
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                done = true;
+                running[index] = null;
+                // 记录从第一次请求开始的耗时：对冲获胜时即为第一次请求耗时的下界
+                elapsed = System.nanoTime() - firstStart;
+            }
+            if (adaptive != null) {
+                adaptive.record(elapsed);
+            }
+            // 先取消其余请求再下发结果，emitter的终止回调在下游收到结果之后才执行
+            cancelAll();
+            emitter.complete(item);
+        }
+
+        private void failed(int index, Throwable failure) {
+            boolean next = false;
+            Throwable error = null;
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                running[index] = null;
+                failures[index] = failure;
+                if (++failed == maxAttempts) {
+                    done = true;
+                    error = maxAttempts == 1 ? failure : new CompositeException(failures);
+                } else if (failed == started) {
+                    // 没有执行中的请求，不再等待延迟
+                    cancelTimer();
+                    next = true;
+                }
+            }
+            if (error != null) {
+                emitter.fail(error);
+            } else if (next) {
+                start();
+            }
+        }
+
+        private final class Attempt implements UniSubscriber<T> {
+
+            private final int index;
+
+            Attempt(int index) {
+                this.index = index;
+            }
+
+            @Override
+            public Context context() {
+                return emitter.context();
+            }
+
+            @Override
+            public void onSubscribe(UniSubscription subscription) {
+                boolean cancel;
+                synchronized (Hedge.this) {
+                    cancel = done;
+                    if (!cancel) {
+                        running[index] = subscription;
+                    }
+                }
+                if (cancel) {
+                    subscription.cancel();
+                }
+            }
+
+            @Override
+            public void onItem(T item) {
+                succeeded(index, item);
+            }
+
+            @Override
+            public void onFailure(Throwable failure) {
+                failed(index, failure);
+            }
+        }
+    }
+}
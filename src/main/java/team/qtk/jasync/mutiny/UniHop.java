@@ -0,0 +1,91 @@
+package team.qtk.jasync.mutiny;
+
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.operators.AbstractUni;
+import io.smallrye.mutiny.operators.UniOperator;
+import io.smallrye.mutiny.operators.uni.UniOperatorProcessor;
+import io.smallrye.mutiny.subscription.UniSubscriber;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 在指定executor上下发结果，与emitOn不同的是当前线程已在执行该executor的任务时直接下发，不再切换线程
+ */
+class UniHop<T> extends UniOperator<T, T> {
+
+    // 当前线程正在执行的(经由本类提交的)executor任务
+    private static final ThreadLocal<Executor> CURRENT = new ThreadLocal<>();
+
+    private final Executor executor;
+
+    UniHop(Uni<T> upstream, Executor executor) {
+        super(upstream);
+        this.executor = executor;
+    }
+
+    static boolean isRunningOn(Executor executor) {
+        return CURRENT.get() == executor;
+    }
+
+    static void execute(Executor executor, Runnable task) {
+        executor.execute(
+            () -> {
+                Executor previous = CURRENT.get();
+                CURRENT.set(executor);
+                try {
+                    task.run();
+                } finally {
+                    if (previous != null) {
+                        CURRENT.set(previous);
+                    } else {
+                        CURRENT.remove();
+                    }
+                }
+            }
+        );
+    }
+
+    @Override
+    public void subscribe(UniSubscriber<? super T> subscriber) {
+        AbstractUni.subscribe(upstream(), new UniHopProcessor(subscriber));
+    }
+
+    private class UniHopProcessor extends UniOperatorProcessor<T, T> {
+
+        UniHopProcessor(UniSubscriber<? super T> downstream) {
+            super(downstream);
+        }
+
+        @Override
+        public void onItem(T item) {
+            if (isCancelled()) {
+                return;
+            }
+            if (isRunningOn(executor)) {
+                super.onItem(item);
+                return;
+            }
+            try {
+                execute(executor, () -> super.onItem(item));
+            } catch (RejectedExecutionException e) {
+                super.onFailure(e);
+            }
+        }
+
+        @Override
+        public void onFailure(Throwable failure) {
+            if (isCancelled() || isRunningOn(executor)) {
+                super.onFailure(failure);
+                return;
+            }
+            try {
+                execute(executor, () -> super.onFailure(failure));
+            } catch (RejectedExecutionException e) {
+                // 与onItem一致：以拒绝失败，原异常作为suppressed保留
+                e.addSuppressed(failure);
+                super.onFailure(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,370 @@
+package team.qtk.jasync.mutiny;
+
+import io.github.vipcxj.jasync.spec.JPromise;
+import io.github.vipcxj.jasync.spec.Utils;
+import io.github.vipcxj.jasync.spec.functional.BooleanSupplier;
+import io.github.vipcxj.jasync.spec.functional.PromiseFunction;
+import io.github.vipcxj.jasync.spec.functional.PromiseSupplier;
+import io.github.vipcxj.jasync.spec.functional.VoidPromiseFunction;
+import io.github.vipcxj.jasync.spec.functional.VoidPromiseSupplier;
+import io.github.vipcxj.jasync.spec.switchexpr.ICase;
+import io.smallrye.mutiny.Context;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.operators.AbstractUni;
+import io.smallrye.mutiny.subscription.UniSubscriber;
+import io.smallrye.mutiny.subscription.UniSubscription;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 循环操作符：条件与循环体同步完成时在当前线程内以循环方式执行下一轮，只有真正异步时才挂起，
+ * 异步结果回来后由完成的线程继续执行，调用栈深度与循环次数无关
+ */
+class UniLoop<T> extends AbstractUni<T> {
+
+    static final UniPromise<Boolean> TRUE = UniPromise.just(true);
+    static final UniPromise<Boolean> FALSE = UniPromise.just(false);
+    static final UniPromise<Object> NULL = UniPromise.just(null);
+
+    private final String label;
+    private final Supplier<? extends Iteration<T>> iterations;
+
+    // switch语句不处理continue，由外层循环处理
+    private final boolean catchContinue;
+
+    UniLoop(String label, Supplier<? extends Iteration<T>> iterations) {
+        this(label, iterations, true);
+    }
+
+    private UniLoop(String label, Supplier<? extends Iteration<T>> iterations, boolean catchContinue) {
+        this.label = label;
+        this.iterations = iterations;
+        this.catchContinue = catchContinue;
+    }
+
+    static <T> UniLoop<T> whileLoop(BooleanSupplier predicate, PromiseFunction<T, T> body, T initial, String label) {
+        return whileLoop(() -> Utils.safeTest(predicate) ? TRUE : FALSE, body, initial, label);
+    }
+
+    static <T> UniLoop<T> whileLoop(
+        PromiseSupplier<Boolean> predicate,
+        PromiseFunction<T, T> body,
+        T initial,
+        String label
+    ) {
+        return new UniLoop<>(
+            label,
+            () ->
+                new Iteration<T>() {
+                    private T value = initial;
+
+                    @Override
+                    JPromise<Boolean> test() throws Throwable {
+                        return predicate.get();
+                    }
+
+                    @Override
+                    JPromise<?> body() throws Throwable {
+                        return body.apply(value);
+                    }
+
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    void accept(Object result) {
+                        //noinspection unchecked
+                        value = (T) result;
+                    }
+
+                    @Override
+                    T result() {
+                        return value;
+                    }
+                }
+        );
+    }
+
+    static <E> UniLoop<Void> forEach(Iterable<E> iterable, VoidPromiseFunction<E> block, String label) {
+        return new UniLoop<>(
+            label,
+            () ->
+                new Iteration<Void>() {
+                    private final Iterator<E> iterator = iterable.iterator();
+
+                    @Override
+                    JPromise<Boolean> test() {
+                        return iterator.hasNext() ? TRUE : FALSE;
+                    }
+
+                    @Override
+                    JPromise<?> body() throws Throwable {
+                        return block.apply(iterator.next());
+                    }
+                }
+        );
+    }
+
+    /**
+     * 按下标遍历数组，body直接以int下标读取原始类型数组，元素不装箱，每个元素也不额外分配对象
+     */
+    static UniLoop<Void> indexed(int length, IndexedBody body, String label) {
+        return new UniLoop<>(
+            label,
+            () ->
+                new Iteration<Void>() {
+                    private int index;
+
+                    @Override
+                    JPromise<Boolean> test() {
+                        return index < length ? TRUE : FALSE;
+                    }
+
+                    @Override
+                    JPromise<?> body() throws Throwable {
+                        return body.apply(index++);
+                    }
+                }
+        );
+    }
+
+    /**
+     * 从start起依次执行case body(fall-through)，作为一个阶段执行，break结束
+     */
+    static <C> UniLoop<Void> switchBlock(List<? extends ICase<C>> cases, int start, String label) {
+        return new UniLoop<>(
+            label,
+            () ->
+                new Iteration<Void>() {
+                    private int index = start;
+
+                    @Override
+                    JPromise<Boolean> test() {
+                        return index < cases.size() ? TRUE : FALSE;
+                    }
+
+                    @Override
+                    JPromise<?> body() throws Throwable {
+                        VoidPromiseSupplier body = cases.get(index++).getBody();
+                        return body != null ? body.get() : null;
+                    }
+                },
+            false
+        );
+    }
+
+    @FunctionalInterface
+    interface IndexedBody {
+        JPromise<?> apply(int index) throws Throwable;
+    }
+
+    @Override
+    public void subscribe(UniSubscriber<? super T> subscriber) {
+        LoopSubscription subscription = new LoopSubscription(subscriber, iterations.get());
+        subscriber.onSubscribe(subscription);
+        subscription.drain();
+    }
+
+    /**
+     * 一次订阅的循环状态，test与body返回的promise为已完成的promise时不订阅直接取结果
+     */
+    abstract static class Iteration<T> {
+
+        abstract JPromise<Boolean> test() throws Throwable;
+
+        abstract JPromise<?> body() throws Throwable;
+
+        void accept(Object result) {}
+
+        T result() {
+            return null;
+        }
+    }
+
+    private static final int TEST = 0;
+    private static final int BODY = 1;
+
+    private class LoopSubscription implements UniSubscription, UniSubscriber<Object> {
+
+        private final UniSubscriber<? super T> downstream;
+        private final Iteration<T> iteration;
+        private final AtomicInteger wip = new AtomicInteger();
+
+        private int phase = TEST;
+        private boolean waiting;
+        private boolean done;
+        private volatile boolean cancelled;
+        private volatile boolean ready;
+        private volatile UniSubscription current;
+        private Object stepValue;
+        private Throwable stepError;
+
+        // 本次run()中同步执行的迭代次数，用于JFR事件
+        private int iterations;
+
+        // 继承自Context的截止时间，超时后不再开始新的一轮
+        private final Long deadline;
+
+        LoopSubscription(UniSubscriber<? super T> downstream, Iteration<T> iteration) {
+            this.downstream = downstream;
+            this.iteration = iteration;
+            this.deadline = Deadline.of(downstream);
+        }
+
+        void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            for (;;) {
+                run();
+                missed = wip.addAndGet(-missed);
+                if (missed == 0) {
+                    return;
+                }
+            }
+        }
+
+        private void run() {
+            Object batch = Jfr.beginLoopBatch();
+            Object scope = ContextPropagation.enter(this);
+            iterations = 0;
+            try {
+                step();
+            } finally {
+                ContextPropagation.exit(scope);
+            }
+            Jfr.endLoopBatch(batch, label, iterations);
+        }
+
+        @SuppressWarnings("unchecked")
+        private void step() {
+            while (!done) {
+                if (cancelled) {
+                    done = true;
+                    return;
+                }
+                if (waiting) {
+                    if (!ready) {
+                        return;
+                    }
+                    waiting = false;
+                    ready = false;
+                    current = null;
+                    Object value = stepValue;
+                    Throwable error = stepError;
+                    stepValue = null;
+                    stepError = null;
+                    onStep(value, error);
+                    continue;
+                }
+                if (phase == TEST && deadline != null && Deadline.isExpired(deadline)) {
+                    done = true;
+                    downstream.onFailure(Deadline.timeout());
+                    return;
+                }
+                JPromise<?> step;
+                try {
+                    step = phase == TEST ? iteration.test() : iteration.body();
+                    if (step == null) {
+                        step = phase == TEST ? FALSE : NULL;
+                    }
+                } catch (Throwable t) {
+                    onStep(null, t);
+                    continue;
+                }
+                if (step instanceof UniPromise && ((UniPromise<?>) step).isImmediate()) {
+                    UniPromise<?> immediate = (UniPromise<?>) step;
+                    Metrics.await(false);
+                    onStep(immediate.getImmediateValue(), immediate.getImmediateError());
+                    continue;
+                }
+                Uni<Object> uni;
+                try {
+                    uni = step.unwrap(Uni.class);
+                } catch (Throwable t) {
+                    onStep(null, t);
+                    continue;
+                }
+                waiting = true;
+                Metrics.await(true);
+                // 若同步完成，回调中的drain()只会增加wip，由本循环继续处理结果
+                AbstractUni.subscribe(uni, this);
+            }
+        }
+
+        private void onStep(Object value, Throwable error) {
+            if (error != null) {
+                onStepFailure(error);
+            } else if (phase == TEST) {
+                if (Boolean.TRUE.equals(value)) {
+                    phase = BODY;
+                    if (catchContinue) {
+                        iterations++;
+                        Metrics.loopIteration();
+                    }
+                } else {
+                    complete();
+                }
+            } else {
+                iteration.accept(value);
+                phase = TEST;
+            }
+        }
+
+        private void onStepFailure(Throwable error) {
+            if (phase == BODY && catchContinue && UniCatchSignal.isContinue(error, label)) {
+                Metrics.signal(PromiseMetrics.Signal.CONTINUE);
+                phase = TEST;
+            } else if (UniCatchSignal.isBreak(error, label)) {
+                Metrics.signal(PromiseMetrics.Signal.BREAK);
+                complete();
+            } else {
+                done = true;
+                downstream.onFailure(error);
+            }
+        }
+
+        private void complete() {
+            done = true;
+            downstream.onItem(iteration.result());
+        }
+
+        @Override
+        public void onSubscribe(UniSubscription subscription) {
+            current = subscription;
+            if (cancelled) {
+                subscription.cancel();
+            }
+        }
+
+        @Override
+        public void onItem(Object item) {
+            stepValue = item;
+            ready = true;
+            drain();
+        }
+
+        @Override
+        public void onFailure(Throwable failure) {
+            stepError = failure;
+            ready = true;
+            drain();
+        }
+
+        @Override
+        public Context context() {
+            return downstream.context();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            UniSubscription subscription = current;
+            if (subscription != null) {
+                subscription.cancel();
+            }
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package team.qtk.jasync.mutiny;
+
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.operators.AbstractUni;
+import io.smallrye.mutiny.subscription.UniSubscriber;
+import io.smallrye.mutiny.subscription.UniSubscription;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * 记忆化的Uni：第一个订阅者触发上游订阅，上游只执行一次，结果下发给所有(包括之后的)订阅者。
+ * 等待中的订阅者保存在不可变数组中，以CAS增删，不加锁；单个订阅者取消不会取消上游
+ */
+class UniMemoize<T> extends AbstractUni<T> implements UniSubscriber<T> {
+
+    private static final VarHandle SUBSCRIBERS;
+
+    private static final MemoSubscription[] EMPTY = new MemoSubscription[0];
+
+    // 上游已完成
+    private static final MemoSubscription[] DONE = new MemoSubscription[0];
+
+    static {
+        try {
+            SUBSCRIBERS = MethodHandles
+                .lookup()
+                .findVarHandle(UniMemoize.class, "subscribers", MemoSubscription[].class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final Uni<T> upstream;
+
+    // 结果同时写入promise，供await()读取
+    private final UniPromise<T> promise;
+
+    // null: 尚未订阅上游；DONE: 已完成；其他: 等待结果的订阅者
+    private volatile MemoSubscription[] subscribers;
+
+    // 在DONE发布之前写入，读到DONE后可见
+    private T value;
+    private Throwable error;
+
+    UniMemoize(Uni<T> upstream, UniPromise<T> promise) {
+        this.upstream = upstream;
+        this.promise = promise;
+    }
+
+    @Override
+    public void subscribe(UniSubscriber<? super T> subscriber) {
+        MemoSubscription s = new MemoSubscription(this, subscriber);
+        subscriber.onSubscribe(s);
+        for (;;) {
+            MemoSubscription[] current = subscribers;
+            if (current == DONE) {
+                s.complete(value, error);
+                return;
+            }
+            MemoSubscription[] next;
+            if (current == null) {
+                next = new MemoSubscription[] { s };
+            } else {
+                next = Arrays.copyOf(current, current.length + 1);
+                next[current.length] = s;
+            }
+            if (SUBSCRIBERS.compareAndSet(this, current, next)) {
+                if (current == null) {
+                    AbstractUni.subscribe(upstream, this);
+                }
+                return;
+            }
+        }
+    }
+
+    private void remove(MemoSubscription s) {
+        for (;;) {
+            MemoSubscription[] current = subscribers;
+            if (current == null || current == DONE || current == EMPTY) {
+                return;
+            }
+            int index = -1;
+            for (int i = 0; i < current.length; i++) {
+                if (current[i] == s) {
+                    index = i;
+                    break;
+                }
+            }
+            if (index < 0) {
+                return;
+            }
+            MemoSubscription[] next;
+            if (current.length == 1) {
+                // 保持非null，避免再次订阅上游
+                next = EMPTY;
+            } else {
+                next = new MemoSubscription[current.length - 1];
+                System.arraycopy(current, 0, next, 0, index);
+                System.arraycopy(current, index + 1, next, index, current.length - index - 1);
+            }
+            if (SUBSCRIBERS.compareAndSet(this, current, next)) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void onSubscribe(UniSubscription subscription) {
+        // 上游不因下游取消而取消，结果仍留给之后的订阅者
+    }
+
+    @Override
+    public void onItem(T item) {
+        complete(item, null);
+    }
+
+    @Override
+    public void onFailure(Throwable failure) {
+        complete(null, failure);
+    }
+
+    private void complete(T item, Throwable failure) {
+        if (subscribers == DONE) {
+            return;
+        }
+        this.value = item;
+        this.error = failure;
+        promise.complete(item, failure);
+        MemoSubscription[] waiting = (MemoSubscription[]) SUBSCRIBERS.getAndSet(this, DONE);
+        if (waiting == DONE) {
+            return;
+        }
+        for (MemoSubscription s : waiting) {
+            s.complete(item, failure);
+        }
+    }
+
+    private static final class MemoSubscription implements UniSubscription {
+
+        private final UniMemoize<?> parent;
+
+        private final UniSubscriber<Object> downstream;
+
+        private volatile boolean cancelled;
+
+        @SuppressWarnings("unchecked")
+        MemoSubscription(UniMemoize<?> parent, UniSubscriber<?> downstream) {
+            this.parent = parent;
+            //noinspection unchecked
+            this.downstream = (UniSubscriber<Object>) downstream;
+        }
+
+        void complete(Object item, Throwable failure) {
+            if (cancelled) {
+                return;
+            }
+            if (failure != null) {
+                downstream.onFailure(failure);
+            } else {
+                downstream.onItem(item);
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            parent.remove(this);
+        }
+    }
+}
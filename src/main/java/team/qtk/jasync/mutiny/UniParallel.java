@@ -0,0 +1,136 @@
+package team.qtk.jasync.mutiny;
+
+import io.github.vipcxj.jasync.spec.Utils;
+import io.github.vipcxj.jasync.spec.functional.VoidPromiseFunction;
+import io.smallrye.mutiny.Context;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+
+import java.util.Iterator;
+
+/**
+ * 并发for-each：基于Multi的merge，最多maxConcurrency个循环体同时执行。
+ * continue只结束当前循环体；break取消其余循环体并正常结束；其他异常取消其余循环体并失败
+ */
+final class UniParallel {
+
+    // Multi不允许null元素，null元素以此代替
+    private static final Object NULL = new Object();
+
+    private UniParallel() {
+    }
+
+    @SuppressWarnings("unchecked")
+    static <E> Uni<Void> forEach(
+        Iterable<E> iterable,
+        int maxConcurrency,
+        VoidPromiseFunction<E> block,
+        String label
+    ) {
+        checkConcurrency(maxConcurrency);
+        Iterable<Object> elements = () -> {
+            Iterator<E> iterator = iterable.iterator();
+            return new Iterator<Object>() {
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public Object next() {
+                    E element = iterator.next();
+                    return element != null ? element : NULL;
+                }
+            };
+        };
+        return merge(
+            Multi.createFrom().iterable(elements),
+            maxConcurrency,
+            element -> {
+                //noinspection unchecked
+                return block.apply(element != NULL ? (E) element : null);
+            },
+            label
+        );
+    }
+
+    static <E> Uni<Void> forEach(E[] array, int maxConcurrency, VoidPromiseFunction<E> block, String label) {
+        checkConcurrency(maxConcurrency);
+        return merge(Multi.createFrom().range(0, array.length), maxConcurrency, i -> block.apply(array[i]), label);
+    }
+
+    private static void checkConcurrency(int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be positive: " + maxConcurrency);
+        }
+    }
+
+    private static <I> Uni<Void> merge(
+        Multi<I> elements,
+        int maxConcurrency,
+        VoidPromiseFunction<I> block,
+        String label
+    ) {
+        if (!ContextPropagation.isActive()) {
+            return merge(elements, maxConcurrency, block, label, null);
+        }
+        // 循环体同样在恢复了线程上下文的情况下执行
+        return Uni.createFrom().context(context -> merge(elements, maxConcurrency, block, label, context));
+    }
+
+    private static <I> Uni<Void> merge(
+        Multi<I> elements,
+        int maxConcurrency,
+        VoidPromiseFunction<I> block,
+        String label,
+        Context context
+    ) {
+        // merge因循环体失败而结束时只停止上游，不取消执行中的其他循环体；下游取消时才会取消全部循环体。
+        // 因此循环体把异常作为元素发出(正常结束的循环体没有元素)，toUni()取到第一个异常即取消merge
+        return elements
+            .onItem()
+            .transformToUni(element -> body(block, element, label, context))
+            .merge(maxConcurrency)
+            .toUni()
+            .onItem()
+            .ifNotNull()
+            .transformToUni(t -> Uni.createFrom().<Void>failure(t))
+            .onFailure()
+            .invoke(
+                t -> {
+                    if (UniCatchSignal.isBreak(t, label)) {
+                        Metrics.signal(PromiseMetrics.Signal.BREAK);
+                    }
+                }
+            )
+            .onFailure(t -> UniCatchSignal.isBreak(t, label))
+            .recoverWithNull()
+            .replaceWithVoid();
+    }
+
+    private static <I> Uni<Throwable> body(VoidPromiseFunction<I> block, I element, String label, Context context) {
+        Metrics.loopIteration();
+        Uni<Void> body;
+        Object scope = context != null ? ContextPropagation.enter(context) : null;
+        try {
+            body = Utils.safeApply(block, element).unwrap(Uni.class);
+        } catch (Throwable t) {
+            body = Uni.createFrom().failure(t);
+        } finally {
+            ContextPropagation.exit(scope);
+        }
+        return body
+            .onItem()
+            .<Throwable>transform(v -> null)
+            .onFailure()
+            .recoverWithItem(
+                t -> {
+                    if (UniCatchSignal.isContinue(t, label)) {
+                        Metrics.signal(PromiseMetrics.Signal.CONTINUE);
+                        return null;
+                    }
+                    return t;
+                }
+            );
+    }
+}
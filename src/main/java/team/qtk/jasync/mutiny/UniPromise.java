@@ -1,82 +1,156 @@
 package team.qtk.jasync.mutiny;
 
-import io.github.vipcxj.jasync.runtime.helpers.ArrayIterator;
 import io.github.vipcxj.jasync.spec.*;
 import io.github.vipcxj.jasync.spec.catcher.Catcher;
 import io.github.vipcxj.jasync.spec.functional.*;
 import io.github.vipcxj.jasync.spec.switchexpr.ICase;
+import io.smallrye.mutiny.Context;
+import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.time.Duration;
-import java.util.Collections;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Objects;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicReference;
-import java.util.stream.Collectors;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 
 public class UniPromise<T> implements JPromise<T> {
 
-    private boolean resolved;
-    private T value;
-    private Throwable error;
+    private static final VarHandle RESULT;
+
+    static {
+        try {
+            RESULT = MethodHandles.lookup().findVarHandle(UniPromise.class, "result", Result.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    // 已完成的promise(just/error)的结果
+    private final T value;
+    private final Throwable error;
+
+    // 订阅得到的最近一次结果(不可变快照)，记忆化的promise只发布第一次结果
+    private volatile Result<T> result;
+
+    // 未经UniMemoize/UniHop包装的上游，memoize()以其为源
+    private final Uni<T> source;
     private final Uni<T> uni;
 
+    // 已完成的promise按需创建的Uni
+    private Uni<T> immediateUni;
+
+    private static final UniPromise<Object> NULL = new UniPromise<>(null, (Throwable) null);
+
+    // 已完成的promise(just/error)，then/doCatch/doFinally直接执行后续逻辑，不构建Uni也不订阅
+    private final boolean immediate;
+
+    // 后续逻辑(then/doCatch等)执行的executor，为null时在完成上游的线程上执行
+    private final Executor executor;
+
+    private final boolean memoized;
+
     public UniPromise(Uni<T> uni) {
-        this.uni = uni;
+        this(uni, null);
     }
 
-    private void resolve(T value) {
-        this.resolved = true;
-        this.value = value;
-        this.error = null;
+    public UniPromise(Uni<T> uni, Executor executor) {
+        this(uni, executor, false);
     }
 
-    private void reject(Throwable error) {
-        this.resolved = true;
+    // memoize为true时上游只订阅一次，结果由所有then/await/block/async共享
+    UniPromise(Uni<T> uni, Executor executor, boolean memoize) {
+        Uni<T> source = memoize ? new UniMemoize<>(uni, this) : uni;
+        this.uni = executor != null ? new UniHop<>(source, executor) : source;
+        this.source = uni;
         this.value = null;
+        this.error = null;
+        this.executor = executor;
+        this.immediate = false;
+        this.memoized = memoize;
+        Metrics.stageCreated();
+    }
+
+    private UniPromise(T value, Throwable error) {
+        this.value = value;
         this.error = error;
+        this.source = null;
+        this.uni = null;
+        this.executor = null;
+        this.immediate = true;
+        this.memoized = false;
+    }
+
+    // 已完成的promise按需才创建Uni，只读取final字段，并发下重复创建的Uni等价，无需同步
+    private Uni<T> uni() {
+        if (!immediate) {
+            return uni;
+        }
+        Uni<T> created = immediateUni;
+        if (created == null) {
+            created = error != null ? Uni.createFrom().failure(error) : Uni.createFrom().item(value);
+            immediateUni = created;
+        }
+        return created;
+    }
+
+    boolean isImmediate() {
+        return immediate;
+    }
+
+    T getImmediateValue() {
+        return value;
+    }
+
+    Throwable getImmediateError() {
+        return error;
+    }
+
+    boolean isResolved() {
+        return immediate || result != null;
+    }
+
+    void resolve(T value) {
+        complete(value, null);
+    }
+
+    private void reject(Throwable error) {
+        complete(null, error);
+    }
+
+    // 记忆化的promise只有第一个结果生效；未记忆化的promise每次订阅都重新执行，发布最近一次的结果
+    boolean complete(T value, Throwable error) {
+        if (memoized) {
+            return result == null && RESULT.compareAndSet(this, null, new Result<>(value, error));
+        }
+        result = new Result<>(value, error);
+        return true;
+    }
+
+    // 返回共享同一次上游执行的promise，重复订阅不会重复执行上游(如RPC调用)
+    public UniPromise<T> memoize() {
+        if (immediate || memoized) {
+            return this;
+        }
+        return new UniPromise<>(source, executor, true);
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public <O> JPromise<O> then(PromiseFunction<T, O> resolver) {
-        AtomicReference<Boolean> empty = new AtomicReference<>(true);
-        return new UniPromise<>(
-            uni
-                .<O>flatMap(
-                    v -> {
-                        resolve(v);
-                        empty.set(false);
-                        try {
-                            return Utils.safeApply(resolver, v).unwrap(Uni.class);
-                        } catch (Throwable t) {
-                            return Uni.createFrom().failure(t);
-                        }
-                    }
-                )
-                .onItem()
-                .ifNull()
-                .switchTo(
-                    Uni
-                        .createFrom()
-                        .deferred(
-                            () -> {
-                                if (empty.get()) {
-                                    resolve(null);
-                                    try {
-                                        return Utils.safeApply(resolver, null).unwrap(Uni.class);
-                                    } catch (Throwable t) {
-                                        return Uni.createFrom().failure(t);
-                                    }
-                                } else {
-                                    return Uni.createFrom().nullItem();
-                                }
-                            }
-                        )
-                )
-        );
+        if (immediate) {
+            if (error != null) {
+                //noinspection unchecked
+                return (JPromise<O>) this;
+            }
+            try {
+                return Utils.safeApply(resolver, value);
+            } catch (Throwable t) {
+                return error(t);
+            }
+        }
+        return new UniPromise<>(new UniThen<>(uni, this, resolver), executor);
     }
 
     @Override
@@ -84,214 +158,109 @@ public class UniPromise<T> implements JPromise<T> {
         List<Class<? extends Throwable>> exceptionsType,
         PromiseFunction<Throwable, T> reject
     ) {
-        return doCatch(exceptionsType, reject, true);
+        return doCatch(CatcherTable.of(exceptionsType), reject, true);
     }
 
     @Override
     @SuppressWarnings("unchecked")
     public JPromise<T> doCatch(List<Catcher<?, T>> catchers) {
+        CatcherTable table = CatcherTable.ofCatchers(catchers);
         return this.doCatch(
-            Collections.singletonList(Throwable.class),
+            table,
             t -> {
-                List<? extends Class<? extends Throwable>> exceptionsType = catchers
-                    .stream()
-                    .map(Catcher::getExceptionType)
-                    .collect(Collectors.toList());
-                if (JAsync.mustRethrowException(t, exceptionsType)) {
+                if (table.mustRethrow(t)) {
                     return JAsync.error(t);
                 }
-                for (Catcher<?, T> catcher : catchers) {
-                    if (catcher.match(t)) {
-                        //noinspection unchecked
-                        PromiseFunction<Throwable, T> reject = (PromiseFunction<Throwable, T>) catcher.getReject();
-                        JPromise<T> res = reject != null ? reject.apply(t) : null;
-                        return res != null ? res : JAsync.just();
-                    }
-                }
-                return null;
+                //noinspection unchecked
+                PromiseFunction<Throwable, T> reject = (PromiseFunction<Throwable, T>) catchers
+                    .get(table.indexOf(t))
+                    .getReject();
+                JPromise<T> res = reject != null ? reject.apply(t) : null;
+                return res != null ? res : JAsync.just();
             },
             false
         );
     }
 
     private JPromise<T> doCatch(
-        List<Class<? extends Throwable>> exceptionsType,
+        CatcherTable table,
         PromiseFunction<Throwable, T> reject,
         boolean processInnerExceptions
     ) {
+        if (immediate) {
+            Throwable t = error;
+            if (t == null || !table.matches(t)) {
+                return this;
+            }
+            if (processInnerExceptions && table.mustRethrow(t)) {
+                return this;
+            }
+            Metrics.exceptionCaught(t);
+            try {
+                return Utils.safeApply(reject, t);
+            } catch (Throwable e) {
+                return error(e);
+            }
+        }
+        Function<Throwable, Uni<? extends T>> handler = t -> {
+            if (processInnerExceptions && table.mustRethrow(t)) {
+                return Uni.createFrom().failure(t);
+            }
+            reject(t);
+            Metrics.exceptionCaught(t);
+            try {
+                return Utils.safeApply(reject, t).unwrap(Uni.class);
+            } catch (Throwable e) {
+                return Uni.createFrom().failure(e);
+            }
+        };
+        if (!ContextPropagation.isActive()) {
+            return new UniPromise<>(uni.onFailure(table::matches).recoverWithUni(handler), executor);
+        }
+        // catch块同样在恢复了线程上下文的情况下执行
         return new UniPromise<>(
-            uni
-                .onFailure(
-                    t -> exceptionsType.stream().anyMatch(e -> e.isAssignableFrom(t.getClass()))
-                )
-                .recoverWithUni(
-                    t -> {
-                        if (processInnerExceptions && JAsync.mustRethrowException(t, exceptionsType)) {
-                            return Uni.createFrom().failure(t);
-                        }
-                        reject(t);
-                        try {
-                            return Utils.safeApply(reject, t).unwrap(Uni.class);
-                        } catch (Throwable e) {
-                            return Uni.createFrom().failure(e);
-                        }
-                    }
-                )
+            Uni
+                .createFrom()
+                .context(
+                    context ->
+                        uni
+                            .onFailure(table::matches)
+                            .recoverWithUni(
+                                t -> {
+                                    Object scope = ContextPropagation.enter(context);
+                                    try {
+                                        return handler.apply(t);
+                                    } finally {
+                                        ContextPropagation.exit(scope);
+                                    }
+                                }
+                            )
+                ),
+            executor
         );
     }
 
     @Override
     public JPromise<T> doFinally(VoidPromiseSupplier block) {
-        AtomicReference<Boolean> isCatch = new AtomicReference<>(false);
-        return doCatch(
-            Collections.singletonList(Throwable.class),
-            t -> {
-                isCatch.set(true);
-                return Utils.safeGetVoid(block).then(() -> JAsync.error(t));
-            },
-            false
-        )
-            .then(
-                v -> {
-                    if (!isCatch.get()) {
-                        return Utils.safeGetVoid(block).then(() -> just(v));
-                    } else {
-                        return just(v);
-                    }
-                }
-            );
-    }
-
-    private Uni<? extends AtomicReference<T>> doWhileBody(
-        PromiseFunction<T, T> body,
-        String label,
-        AtomicReference<T> ref
-    )
-        throws Throwable {
-        try {
-            return Utils
-                .safeApply(body, ref.get())
-                .then(
-                    a -> {
-                        ref.set(a);
-                        return null;
-                    }
-                )
-                .doCatch(
-                    ContinueException.class,
-                    e -> {
-                        if (e.matchLabel(label)) {
-                            return null;
-                        }
-                        return JAsync.error(e);
-                    }
-                )
-                .unwrap(Uni.class);
-        } catch (ContinueException e) {
-            if (e.matchLabel(label)) {
-                return JAsync.just(null).unwrap(Uni.class);
+        if (immediate) {
+            try {
+                return Utils.safeGetVoid(block).then(() -> this);
+            } catch (Throwable t) {
+                return error(t);
             }
-            return JAsync.error(e).unwrap(Uni.class);
-        }
-    }
-
-    private Uni<? extends Integer> doWhileBody(VoidPromiseSupplier body, String label) throws Throwable {
-        try {
-            return Utils
-                .safeGetVoid(body)
-                .then(a -> null)
-                .doCatch(
-                    ContinueException.class,
-                    e -> {
-                        if (e.matchLabel(label)) {
-                            return null;
-                        }
-                        return JAsync.error(e);
-                    }
-                )
-                .unwrap(Uni.class);
-        } catch (ContinueException e) {
-            if (e.matchLabel(label)) {
-                return JAsync.just(null).unwrap(Uni.class);
-            }
-            return JAsync.error(e).unwrap(Uni.class);
         }
+        // 成功、失败与取消时都执行一次block
+        return new UniPromise<>(new UniFinally<>(uni, this, block), executor);
     }
 
     @Override
     public JPromise<T> doWhile(BooleanSupplier predicate, PromiseFunction<T, T> block, String label) {
-        return this.then(
-                v -> {
-                    AtomicReference<T> ref = new AtomicReference<>(v);
-                    return new UniPromise<>(
-                        Uni
-                            .createFrom()
-                            .deferred(
-                                () -> {
-                                    try {
-                                        if (predicate.getAsBoolean()) {
-                                            return doWhileBody(block, label, ref);
-                                        } else {
-                                            return Uni.createFrom().item(ref);
-                                        }
-                                    } catch (Throwable t) {
-                                        return Uni.createFrom().failure(t);
-                                    }
-                                }
-                            )
-                            .repeat()
-                            .until(Objects::nonNull)
-                            .toUni()
-                            .map(AtomicReference::get)
-                    );
-                }
-            )
-            .doCatch(
-                BreakException.class,
-                e -> {
-                    if (e.matchLabel(label)) {
-                        return null;
-                    }
-                    return JAsync.error(e);
-                }
-            );
+        return this.then(v -> new UniPromise<>(UniLoop.whileLoop(predicate, block, v, label)));
     }
 
     @Override
     public JPromise<Void> doWhileVoid(BooleanSupplier predicate, VoidPromiseSupplier block, String label) {
-        return this.then(
-                () ->
-                    new UniPromise<Void>(
-                        Uni
-                            .createFrom()
-                            .deferred(
-                                () -> {
-                                    try {
-                                        if (Utils.safeTest(predicate)) {
-                                            return doWhileBody(block, label);
-                                        } else {
-                                            return Uni.createFrom().item(1);
-                                        }
-                                    } catch (Throwable t) {
-                                        return Uni.createFrom().failure(t);
-                                    }
-                                }
-                            )
-                            .repeat()
-                            .until(Objects::nonNull)
-                            .toUni()
-                            .flatMap(v -> Uni.createFrom().nullItem())
-                    )
-            )
-            .doCatch(
-                BreakException.class,
-                e -> {
-                    if (e.matchLabel(label)) {
-                        return null;
-                    }
-                    return JAsync.error(e);
-                }
-            );
+        return this.then(() -> new UniPromise<>(UniLoop.<Void>whileLoop(predicate, v -> block.get(), null, label)));
     }
 
     @Override
@@ -300,52 +269,7 @@ public class UniPromise<T> implements JPromise<T> {
         PromiseFunction<T, T> block,
         String label
     ) {
-        return this.then(
-                v -> {
-                    AtomicReference<T> ref = new AtomicReference<>(v);
-                    return new UniPromise<>(
-                        Uni
-                            .createFrom()
-                            .deferred(
-                                () -> {
-                                    try {
-                                        return Utils
-                                            .safeTest(predicate)
-                                            .<Uni<Boolean>>unwrap(Uni.class)
-                                            .flatMap(
-                                                test -> {
-                                                    try {
-                                                        if (test) {
-                                                            return doWhileBody(block, label, ref);
-                                                        } else {
-                                                            return Uni.createFrom().item(ref);
-                                                        }
-                                                    } catch (Throwable t) {
-                                                        return Uni.createFrom().failure(t);
-                                                    }
-                                                }
-                                            );
-                                    } catch (Throwable t) {
-                                        return Uni.createFrom().failure(t);
-                                    }
-                                }
-                            )
-                            .repeat()
-                            .until(Objects::nonNull)
-                            .toUni()
-                            .map(AtomicReference::get)
-                    );
-                }
-            )
-            .doCatch(
-                BreakException.class,
-                e -> {
-                    if (e.matchLabel(label)) {
-                        return null;
-                    }
-                    return JAsync.error(e);
-                }
-            );
+        return this.then(v -> new UniPromise<>(UniLoop.whileLoop(predicate, block, v, label)));
     }
 
     @Override
@@ -354,65 +278,7 @@ public class UniPromise<T> implements JPromise<T> {
         VoidPromiseSupplier block,
         String label
     ) {
-        return this.then(
-                () ->
-                    new UniPromise<Void>(
-                        Uni
-                            .createFrom()
-                            .deferred(
-                                () -> {
-                                    try {
-                                        return Utils
-                                            .safeTest(predicate)
-                                            .<Uni<Boolean>>unwrap(Uni.class)
-                                            .flatMap(
-                                                test -> {
-                                                    try {
-                                                        if (test) {
-                                                            return doWhileBody(block, label);
-                                                        } else {
-                                                            return Uni.createFrom().item(1);
-                                                        }
-                                                    } catch (Throwable t) {
-                                                        return Uni.createFrom().failure(t);
-                                                    }
-                                                }
-                                            );
-                                    } catch (Throwable t) {
-                                        return Uni.createFrom().failure(t);
-                                    }
-                                }
-                            )
-                            .repeat()
-                            .until(Objects::nonNull)
-                            .toUni()
-                            .flatMap(v -> Uni.createFrom().nullItem())
-                    )
-            )
-            .doCatch(
-                BreakException.class,
-                e -> {
-                    if (e.matchLabel(label)) {
-                        return null;
-                    }
-                    return JAsync.error(e);
-                }
-            );
-    }
-
-    private <E> JPromise<Void> doForEachIterator(
-        Iterator<E> iterator,
-        VoidPromiseFunction<E> block,
-        String label
-    ) {
-        return this.doWhileVoid(
-            iterator::hasNext,
-            () -> {
-                E next = iterator.next();
-                return Utils.safeApply(block, next);
-            },
-            label
-        );
+        return this.then(() -> new UniPromise<>(UniLoop.<Void>whileLoop(predicate, v -> block.get(), null, label)));
     }
 
     @Override
@@ -421,12 +287,12 @@ public class UniPromise<T> implements JPromise<T> {
         VoidPromiseFunction<E> block,
         String label
     ) {
-        return doForEachIterator(iterable.iterator(), block, label);
+        return this.then(() -> new UniPromise<>(UniLoop.forEach(iterable, block, label)));
     }
 
     @Override
     public <E> JPromise<Void> doForEachObjectArray(E[] array, VoidPromiseFunction<E> block, String label) {
-        return doForEachIterator(new ArrayIterator<>(array), block, label);
+        return this.then(() -> new UniPromise<>(UniLoop.indexed(array.length, i -> block.apply(array[i]), label)));
     }
 
     @Override
@@ -435,100 +301,37 @@ public class UniPromise<T> implements JPromise<T> {
         BooleanVoidPromiseFunction block,
         String label
     ) {
-        AtomicInteger index = new AtomicInteger();
-        int length = array.length;
-        return this.doWhileVoid(
-            () -> index.get() < length,
-            () -> {
-                boolean next = array[index.getAndIncrement()];
-                return Utils.safeApply(block, next);
-            },
-            label
-        );
+        return this.then(() -> new UniPromise<>(UniLoop.indexed(array.length, i -> block.apply(array[i]), label)));
     }
 
     @Override
     public JPromise<Void> doForEachByteArray(byte[] array, ByteVoidPromiseFunction block, String label) {
-        AtomicInteger index = new AtomicInteger();
-        int length = array.length;
-        return this.doWhileVoid(
-            () -> index.get() < length,
-            () -> {
-                byte next = array[index.getAndIncrement()];
-                return Utils.safeApply(block, next);
-            },
-            label
-        );
+        return this.then(() -> new UniPromise<>(UniLoop.indexed(array.length, i -> block.apply(array[i]), label)));
     }
 
     @Override
     public JPromise<Void> doForEachCharArray(char[] array, CharVoidPromiseFunction block, String label) {
-        AtomicInteger index = new AtomicInteger();
-        int length = array.length;
-        return this.doWhileVoid(
-            () -> index.get() < length,
-            () -> {
-                char next = array[index.getAndIncrement()];
-                return Utils.safeApply(block, next);
-            },
-            label
-        );
+        return this.then(() -> new UniPromise<>(UniLoop.indexed(array.length, i -> block.apply(array[i]), label)));
     }
 
     @Override
     public JPromise<Void> doForEachShortArray(short[] array, ShortVoidPromiseFunction block, String label) {
-        AtomicInteger index = new AtomicInteger();
-        int length = array.length;
-        return this.doWhileVoid(
-            () -> index.get() < length,
-            () -> {
-                short next = array[index.getAndIncrement()];
-                return Utils.safeApply(block, next);
-            },
-            label
-        );
+        return this.then(() -> new UniPromise<>(UniLoop.indexed(array.length, i -> block.apply(array[i]), label)));
     }
 
     @Override
     public JPromise<Void> doForEachIntArray(int[] array, IntVoidPromiseFunction block, String label) {
-        AtomicInteger index = new AtomicInteger();
-        int length = array.length;
-        return this.doWhileVoid(
-            () -> index.get() < length,
-            () -> {
-                int next = array[index.getAndIncrement()];
-                return Utils.safeApply(block, next);
-            },
-            label
-        );
+        return this.then(() -> new UniPromise<>(UniLoop.indexed(array.length, i -> block.apply(array[i]), label)));
     }
 
     @Override
     public JPromise<Void> doForEachLongArray(long[] array, LongVoidPromiseFunction block, String label) {
-        AtomicInteger index = new AtomicInteger();
-        int length = array.length;
-        return this.doWhileVoid(
-            () -> index.get() < length,
-            () -> {
-                long next = array[index.getAndIncrement()];
-                return Utils.safeApply(block, next);
-            },
-            label
-        );
+        return this.then(() -> new UniPromise<>(UniLoop.indexed(array.length, i -> block.apply(array[i]), label)));
     }
 
     @Override
     public JPromise<Void> doForEachFloatArray(float[] array, FloatVoidPromiseFunction block, String label) {
-        AtomicInteger index = new AtomicInteger();
-        int length = array.length;
-        return this.doWhileVoid(
-            () -> index.get() < length,
-            () -> {
-                float next = array[index.getAndIncrement()];
-                return Utils.safeApply(block, next);
-            },
-            label
-        );
+        return this.then(() -> new UniPromise<>(UniLoop.indexed(array.length, i -> block.apply(array[i]), label)));
     }
 
     @Override
@@ -537,131 +340,134 @@ public class UniPromise<T> implements JPromise<T> {
         DoubleVoidPromiseFunction block,
         String label
     ) {
-        AtomicInteger index = new AtomicInteger();
-        int length = array.length;
-        return this.doWhileVoid(
-            () -> index.get() < length,
-            () -> {
-                double next = array[index.getAndIncrement()];
-                return Utils.safeApply(block, next);
-            },
-            label
-        );
+        return this.then(() -> new UniPromise<>(UniLoop.indexed(array.length, i -> block.apply(array[i]), label)));
+    }
+
+    // 逐个处理Multi的元素，按batchSize批量请求，缓存的元素不超过batchSize
+    public <E> JPromise<Void> doForEachMulti(Multi<E> multi, int batchSize, VoidPromiseFunction<E> block) {
+        return doForEachMulti(multi, batchSize, block, null);
+    }
+
+    public <E> JPromise<Void> doForEachMulti(
+        Multi<E> multi,
+        int batchSize,
+        VoidPromiseFunction<E> block,
+        String label
+    ) {
+        return this.then(() -> new UniPromise<>(MultiIterator.forEach(multi, batchSize, block, label)));
+    }
+
+    // 本promise(包括其中嵌套await的promise)订阅时的Context附加entries
+    public UniPromise<T> withContext(Context entries) {
+        return new UniPromise<>(new UniContext<>(uni(), entries), executor);
+    }
+
+    // 截止时间为timeout与调用方截止时间的较早者，嵌套的await继承该截止时间，超时后以TimeoutException失败
+    public UniPromise<T> withDeadline(Duration timeout) {
+        return new UniPromise<>(new UniDeadline<>(uni(), timeout), executor);
+    }
+
+    // 并发for-each，最多maxConcurrency个循环体同时执行
+    public <E> JPromise<Void> doForEachParallel(
+        Iterable<E> iterable,
+        int maxConcurrency,
+        VoidPromiseFunction<E> block
+    ) {
+        return doForEachParallel(iterable, maxConcurrency, block, null);
+    }
+
+    public <E> JPromise<Void> doForEachParallel(
+        Iterable<E> iterable,
+        int maxConcurrency,
+        VoidPromiseFunction<E> block,
+        String label
+    ) {
+        return this.then(() -> new UniPromise<>(UniParallel.forEach(iterable, maxConcurrency, block, label)));
+    }
+
+    public <E> JPromise<Void> doForEachParallel(E[] array, int maxConcurrency, VoidPromiseFunction<E> block) {
+        return doForEachParallel(array, maxConcurrency, block, null);
+    }
+
+    public <E> JPromise<Void> doForEachParallel(
+        E[] array,
+        int maxConcurrency,
+        VoidPromiseFunction<E> block,
+        String label
+    ) {
+        return this.then(() -> new UniPromise<>(UniParallel.forEach(array, maxConcurrency, block, label)));
     }
 
     @Override
     public <C> JPromise<Void> doSwitch(C value, List<? extends ICase<C>> cases, String label) {
-        boolean matched = false;
-        JPromise<Void> result = null;
-        if (cases != null) {
-            for (int i = 0; i < 2; ++i) {
-                for (ICase<C> aCase : cases) {
-                    if (!matched && aCase.is(value, i != 0)) {
-                        matched = true;
-                    }
-                    if (matched) {
-                        result =
-                            (result != null ? result : this).then(
-                                () -> {
-                                    try {
-                                        VoidPromiseSupplier body = aCase.getBody();
-                                        return Utils.safeGetVoid(body);
-                                    } catch (Throwable t) {
-                                        return JAsync.error(t);
-                                    }
-                                }
-                            );
-                    }
-                }
-                if (matched) {
-                    break;
-                }
-            }
+        int start = cases != null ? SwitchTable.indexOf(value, cases) : -1;
+        if (start < 0) {
+            return JAsync.just();
         }
-
-        return result != null
-            ? result.doCatch(
-            BreakException.class,
-            e -> {
-                if (e.matchLabel(label)) {
-                    return null;
-                }
-                return JAsync.error(e);
-            }
-        )
-            : JAsync.just();
+        return this.then(() -> new UniPromise<>(UniLoop.switchBlock(cases, start, label)));
     }
 
     @Override
     @SuppressWarnings("unchecked")
     public <O> JPromise<O> catchReturn() {
-        AtomicBoolean errorFlag = new AtomicBoolean(false);
-        AtomicReference<O> errorRef = new AtomicReference<>();
-        return new UniPromise<>(
-            uni
-                // if error
-                .onFailure(ReturnException.class)
-                // then,获取下错误信息
-                .recoverWithUni( //
-                    e -> {
-                        ReturnException returnException = (ReturnException) e;
-                        errorFlag.set(true);
-                        //noinspection unchecked
-                        errorRef.set((O) returnException.getValue());
-                        return Uni.createFrom().nullItem();
-                    }
-                )
-                // 正常逻辑，返回正常结果或者错误信息
-                .onItem() // 转到正常流程分支
-                .transformToUni(
-                    v ->
-                        Uni
-                            .createFrom()
-                            .deferred(
-                                () -> {
-                                    if (errorFlag.get()) {
-                                        return Uni.createFrom().item(errorRef.get());
-                                    } else {
-                                        return Uni.createFrom().nullItem();
-                                    }
-                                }
-                            )
-                )
-        );
+        if (immediate) {
+            if (error instanceof ReturnException) {
+                Metrics.signal(PromiseMetrics.Signal.RETURN);
+                //noinspection unchecked
+                return just((O) ((ReturnException) error).getValue());
+            }
+            //noinspection unchecked
+            return error != null ? (JPromise<O>) this : just(null);
+        }
+        return new UniPromise<>(UniCatchSignal.catchReturn(uni), executor);
     }
 
     // await语法糖
     @Override
     public T await() {
-        if (resolved) {
+        if (immediate) {
             if (error != null) {
                 sneakyThrow(error);
-            } else {
-                return value;
             }
+            return value;
+        }
+        Result<T> result = this.result;
+        if (result != null) {
+            if (result.error != null) {
+                sneakyThrow(result.error);
+            }
+            return result.value;
         }
         throw new UnsupportedOperationException();
     }
 
-    // 非阻塞执行
+    // 非阻塞执行，返回的句柄记录结果，可注册回调或转为CompletionStage
     @Override
-    public Handle async() {
-        return new DisposableHandle(
-            cancelCallback -> uni.onCancellation().invoke(cancelCallback).subscribe().with(v -> {
-            })
-        );
+    public DisposableHandle<T> async() {
+        return DisposableHandle.subscribe(uni());
+    }
+
+    // 非阻塞执行，在executor上订阅(如VirtualThreads.executor()，每个任务一个虚拟线程)
+    public DisposableHandle<T> async(Executor executor) {
+        return DisposableHandle.subscribe(uni().runSubscriptionOn(executor));
     }
 
     // 阻塞等待结果（无限制等待）
     @Override
     public T block() {
-        return uni.await().indefinitely();
+        if (immediate && error == null) {
+            return value;
+        }
+        return uni().await().indefinitely();
     }
 
     // 阻塞等待结果（设定超时）
     @Override
     public T block(Duration duration) {
-        return uni.await().atMost(duration);
+        if (immediate && error == null) {
+            return value;
+        }
+        return uni().await().atMost(duration);
     }
 
     @Override
@@ -671,11 +477,22 @@ public class UniPromise<T> implements JPromise<T> {
             throw new UnwrapUnsupportedException(type, Uni.class);
         }
         //noinspection unchecked
-        return (I) uni;
+        return (I) uni();
     }
 
+    @SuppressWarnings("unchecked")
     public static <O> UniPromise<O> just(O value) {
-        return new UniPromise<>(Uni.createFrom().item(value));
+        if (value == null) {
+            // 循环体等大量返回JAsync.just()，共用同一个实例
+            //noinspection unchecked
+            return (UniPromise<O>) NULL;
+        }
+        return new UniPromise<>(value, null);
+    }
+
+    public static <O> UniPromise<O> error(Throwable error) {
+        Jfr.promiseFailed(error);
+        return new UniPromise<>(null, error);
     }
 
     @SuppressWarnings("unchecked")
@@ -683,4 +500,15 @@ public class UniPromise<T> implements JPromise<T> {
         //noinspection unchecked
         throw (E) e;
     }
+
+    private static final class Result<T> {
+
+        final T value;
+        final Throwable error;
+
+        Result(T value, Throwable error) {
+            this.value = value;
+            this.error = error;
+        }
+    }
 }
@@ -0,0 +1,139 @@
+package team.qtk.jasync.mutiny;
+
+import io.github.vipcxj.jasync.spec.JPromise;
+import io.github.vipcxj.jasync.spec.Utils;
+import io.github.vipcxj.jasync.spec.functional.PromiseFunction;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.helpers.EmptyUniSubscription;
+import io.smallrye.mutiny.operators.AbstractUni;
+import io.smallrye.mutiny.operators.UniOperator;
+import io.smallrye.mutiny.operators.uni.UniOperatorProcessor;
+import io.smallrye.mutiny.subscription.UniSubscriber;
+import io.smallrye.mutiny.subscription.UniSubscription;
+
+/**
+ * then()的专用操作符：上游的item(包括null)只调用一次resolver，再订阅resolver返回的promise；
+ * 若返回的是已完成的promise，则直接下发结果，不再订阅
+ */
+class UniThen<I, O> extends UniOperator<I, O> {
+
+    private final UniPromise<I> promise;
+    private final PromiseFunction<I, O> resolver;
+
+    UniThen(Uni<I> upstream, UniPromise<I> promise, PromiseFunction<I, O> resolver) {
+        super(upstream);
+        this.promise = promise;
+        this.resolver = resolver;
+    }
+
+    @Override
+    public void subscribe(UniSubscriber<? super O> subscriber) {
+        AbstractUni.subscribe(upstream(), new UniThenProcessor(subscriber));
+    }
+
+    private class UniThenProcessor extends UniOperatorProcessor<I, O> {
+
+        private volatile UniSubscription innerSubscription;
+
+        // 挂起时开始的JFR事件，恢复时提交
+        private Object suspension;
+
+        UniThenProcessor(UniSubscriber<? super O> downstream) {
+            super(downstream);
+        }
+
+        @Override
+        public void onSubscribe(UniSubscription subscription) {
+            if (getCurrentUpstreamSubscription() == null) {
+                super.onSubscribe(subscription);
+            } else if (innerSubscription == null) {
+                innerSubscription = subscription;
+            } else {
+                subscription.cancel();
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void onItem(I item) {
+            if (isCancelled()) {
+                return;
+            }
+            if (innerSubscription != null) {
+                // resolver返回的promise的结果
+                resumed();
+                emit((O) item);
+                return;
+            }
+            promise.resolve(item);
+            if (Deadline.isExpired(this)) {
+                // 调用方已超时，不再执行后续逻辑
+                onFailure(Deadline.timeout());
+                return;
+            }
+            JPromise<O> next;
+            Uni<O> uni;
+            Object stage = Jfr.beginStage();
+            Object scope = ContextPropagation.enter(this);
+            try {
+                next = Utils.safeApply(resolver, item);
+            } catch (Throwable t) {
+                ContextPropagation.exit(scope);
+                Jfr.endStage(stage, resolver);
+                Jfr.promiseFailed(t);
+                onFailure(t);
+                return;
+            }
+            ContextPropagation.exit(scope);
+            Jfr.endStage(stage, resolver);
+            try {
+                if (next instanceof UniPromise && ((UniPromise<O>) next).isImmediate()) {
+                    Metrics.await(false);
+                    UniPromise<O> immediate = (UniPromise<O>) next;
+                    if (immediate.getImmediateError() != null) {
+                        onFailure(immediate.getImmediateError());
+                    } else {
+                        emit(immediate.getImmediateValue());
+                    }
+                    return;
+                }
+                uni = next.unwrap(Uni.class);
+            } catch (Throwable t) {
+                onFailure(t);
+                return;
+            }
+            Metrics.await(true);
+            suspension = Jfr.awaitSuspended(resolver);
+            AbstractUni.subscribe(uni, (UniSubscriber<? super O>) (UniSubscriber<?>) this);
+        }
+
+        @Override
+        public void onFailure(Throwable failure) {
+            resumed();
+            super.onFailure(failure);
+        }
+
+        private void resumed() {
+            Object suspension = this.suspension;
+            if (suspension != null) {
+                this.suspension = null;
+                Jfr.awaitResumed(suspension);
+            }
+        }
+
+        private void emit(O item) {
+            if (getAndSetUpstreamSubscription(EmptyUniSubscription.CANCELLED) != EmptyUniSubscription.CANCELLED) {
+                downstream.onItem(item);
+            }
+        }
+
+        @Override
+        public void cancel() {
+            UniSubscription inner = innerSubscription;
+            if (inner != null) {
+                inner.cancel();
+            }
+            super.cancel();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package team.qtk.jasync.mutiny;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 虚拟线程(Java 21+)支持，基线仍为Java 11，通过MethodHandle调用Java 21的API，低版本时不启用
+ */
+public final class VirtualThreads {
+
+    private static final MethodHandle IS_VIRTUAL;
+    private static final MethodHandle NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR;
+
+    static {
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        MethodHandle isVirtual = null;
+        MethodHandle newExecutor = null;
+        try {
+            isVirtual = lookup.findVirtual(Thread.class, "isVirtual", MethodType.methodType(boolean.class));
+            newExecutor =
+                lookup.findStatic(
+                    Executors.class,
+                    "newVirtualThreadPerTaskExecutor",
+                    MethodType.methodType(ExecutorService.class)
+                );
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            isVirtual = null;
+            newExecutor = null;
+        }
+        IS_VIRTUAL = isVirtual;
+        NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = newExecutor;
+    }
+
+    private static volatile ExecutorService executor;
+
+    private VirtualThreads() {}
+
+    public static boolean isSupported() {
+        return NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    public static boolean isVirtual(Thread thread) {
+        if (IS_VIRTUAL == null) {
+            return false;
+        }
+        try {
+            return (boolean) IS_VIRTUAL.invokeExact(thread);
+        } catch (Throwable t) {
+            return false;
+        }
+    }
+
+    /**
+     * 共享的每任务一个虚拟线程的executor，可用于{@link UniPromise#async(java.util.concurrent.Executor)}
+     */
+    public static ExecutorService executor() {
+        ExecutorService current = executor;
+        if (current == null) {
+            synchronized (VirtualThreads.class) {
+                current = executor;
+                if (current == null) {
+                    current = newVirtualThreadPerTaskExecutor();
+                    executor = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    public static ExecutorService newVirtualThreadPerTaskExecutor() {
+        if (NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR == null) {
+            throw new UnsupportedOperationException("Virtual threads require Java 21 or later.");
+        }
+        try {
+            return (ExecutorService) NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.invokeExact();
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package team.qtk.jasync.mutiny;
+
+import io.github.vipcxj.jasync.spec.JPromise;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import static team.qtk.jasync.mutiny.TestSupport.gate;
+import static team.qtk.jasync.mutiny.TestSupport.waitUntil;
+
+public class AsyncCacheTest {
+
+    @Test
+    public void concurrentMissesShareOneLoad() {
+        AsyncCache<String, Integer> cache = Promises.cache(10, null);
+        AtomicInteger loads = new AtomicInteger();
+        TestSupport.Gate<Integer> load = gate();
+        List<JPromise<Integer>> promises = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            promises.add(cache.get("a", k -> {
+                loads.incrementAndGet();
+                return load.promise();
+            }));
+        }
+        // 加载仍未完成
+        Assertions.assertEquals(1, loads.get());
+        Assertions.assertEquals(1, load.subscriptions.get());
+        load.complete(1);
+        for (Integer value : Promises.all(promises).block()) {
+            Assertions.assertEquals(1, value);
+        }
+        Assertions.assertEquals(1, cache.get("a", k -> UniPromise.just(loads.incrementAndGet())).block());
+        Assertions.assertEquals(1, loads.get());
+        Assertions.assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void racingMissesShareOneLoad() throws Exception {
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            for (int round = 0; round < 2000; round++) {
+                // 有无TTL两种情况交替
+                AsyncCache<String, Integer> cache = Promises.cache(10, round % 2 == 0 ? null : Duration.ofMinutes(5));
+                AtomicInteger loads = new AtomicInteger();
+                CyclicBarrier barrier = new CyclicBarrier(threads);
+                List<Future<Integer>> results = new ArrayList<>();
+                for (int i = 0; i < threads; i++) {
+                    results.add(pool.submit(() -> {
+                        barrier.await();
+                        return cache.get("a", k -> UniPromise.just(loads.incrementAndGet())).block();
+                    }));
+                }
+                for (Future<Integer> result : results) {
+                    Assertions.assertEquals(1, result.get(), "round " + round);
+                }
+                Assertions.assertEquals(1, loads.get(), "round " + round);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void failuresAreNotCached() {
+        AsyncCache<String, Integer> cache = Promises.cache(10, null);
+        AtomicInteger loads = new AtomicInteger();
+        JPromise<Integer> failed = cache.get(
+            "a",
+            k -> {
+                loads.incrementAndGet();
+                throw new IllegalStateException("down");
+            }
+        );
+        Assertions.assertThrows(IllegalStateException.class, failed::block);
+        Assertions.assertNull(cache.getIfPresent("a"));
+        Assertions.assertEquals(2, cache.get("a", k -> UniPromise.just(loads.incrementAndGet())).block());
+        Assertions.assertEquals(2, cache.getIfPresent("a"));
+    }
+
+    @Test
+    public void callerCancellationDoesNotCancelLoad() {
+        AsyncCache<String, Integer> cache = Promises.cache(10, null);
+        AtomicInteger loads = new AtomicInteger();
+        TestSupport.Gate<Integer> load = gate();
+        cache.get("a", k -> {
+            loads.incrementAndGet();
+            return load.promise();
+        }).async().cancel();
+        JPromise<Integer> second = cache.get("a", k -> UniPromise.just(loads.incrementAndGet()));
+        Assertions.assertEquals(0, load.cancellations.get());
+        load.complete(1);
+        Assertions.assertEquals(1, second.block());
+        Assertions.assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedProbationEntriesFirst() {
+        AsyncCache<String, String> cache = Promises.cache(3, null);
+        for (String key : new String[] { "a", "b", "c" }) {
+            cache.get(key, UniPromise::just).block();
+        }
+        // a被再次访问，升入protected段
+        Assertions.assertEquals("a", cache.getIfPresent("a"));
+        cache.get("d", UniPromise::just).block();
+        cache.get("e", UniPromise::just).block();
+        Assertions.assertEquals(3, cache.size());
+        Assertions.assertEquals("a", cache.getIfPresent("a"));
+        Assertions.assertNull(cache.getIfPresent("b"));
+        Assertions.assertNull(cache.getIfPresent("c"));
+        Assertions.assertEquals("e", cache.getIfPresent("e"));
+    }
+
+    @Test
+    public void expiresAfterWrite() {
+        AsyncCache<String, Integer> cache = Promises.cache(10, Duration.ofMillis(30));
+        AtomicInteger loads = new AtomicInteger();
+        Assertions.assertEquals(1, cache.get("a", k -> UniPromise.just(loads.incrementAndGet())).block());
+        Assertions.assertEquals(1, cache.get("a", k -> UniPromise.just(loads.incrementAndGet())).block());
+        waitUntil(() -> cache.getIfPresent("a") == null);
+        Assertions.assertEquals(2, cache.get("a", k -> UniPromise.just(loads.incrementAndGet())).block());
+        cache.invalidate("a");
+        Assertions.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void refreshesAheadInBackground() {
+        AsyncCache<String, Integer> cache = Promises.cache(10, Duration.ofSeconds(10), Duration.ofMillis(20));
+        AtomicInteger loads = new AtomicInteger();
+        TestSupport.Gate<Integer> reload = gate();
+        Assertions.assertEquals(1, cache.get("a", k -> UniPromise.just(loads.incrementAndGet())).block());
+        // 过了刷新时间后的命中触发后台刷新，刷新完成前仍返回旧值
+        waitUntil(() -> {
+            Integer value = cache.get("a", k -> {
+                loads.incrementAndGet();
+                return reload.promise();
+            }).block();
+            Assertions.assertEquals(1, value);
+            return reload.subscriptions.get() == 1;
+        });
+        Assertions.assertEquals(1, cache.getIfPresent("a"));
+        reload.complete(2);
+        Assertions.assertEquals(2, cache.getIfPresent("a"));
+        Assertions.assertEquals(2, loads.get());
+    }
+}
@@ -0,0 +1,88 @@
+package team.qtk.jasync.mutiny;
+
+import io.github.vipcxj.jasync.spec.JPromise;
+import io.smallrye.mutiny.Uni;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class BatchLoaderTest {
+
+    private static Uni<Map<Integer, String>> lookup(List<List<Integer>> calls, List<Integer> keys) {
+        calls.add(keys);
+        Map<Integer, String> result = new HashMap<>();
+        for (Integer key : keys) {
+            if (key >= 0) {
+                result.put(key, "v" + key);
+            }
+        }
+        return Uni.createFrom().item(result).onItem().delayIt().by(Duration.ofMillis(1));
+    }
+
+    @Test
+    public void keysWithinWindowShareOneCall() {
+        List<List<Integer>> calls = new CopyOnWriteArrayList<>();
+        BatchLoader<Integer, String> loader = Promises.batchLoader(keys -> lookup(calls, keys), 100, Duration.ofMillis(20));
+        List<JPromise<String>> promises = new ArrayList<>();
+        for (int key : new int[] { 1, 2, 3, 2, -1 }) {
+            promises.add(loader.load(key));
+        }
+        Assertions.assertEquals(Arrays.asList("v1", "v2", "v3", "v2", null), Promises.all(promises).block());
+        Assertions.assertEquals(1, calls.size());
+        // 重复的key只请求一次
+        Assertions.assertEquals(Arrays.asList(1, 2, 3, -1), calls.get(0));
+    }
+
+    @Test
+    public void fullBatchDispatchesImmediately() {
+        List<List<Integer>> calls = new CopyOnWriteArrayList<>();
+        BatchLoader<Integer, String> loader = Promises.batchLoader(keys -> lookup(calls, keys), 2, Duration.ofSeconds(10));
+        long start = System.nanoTime();
+        Assertions.assertEquals(
+            Arrays.asList("v1", "v2", "v3", "v4"),
+            Promises.all(loader.load(1), loader.load(2), loader.load(3), loader.load(4)).block()
+        );
+        Assertions.assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 5000);
+        Assertions.assertEquals(2, calls.size());
+    }
+
+    @Test
+    public void manualDispatch() {
+        List<List<Integer>> calls = new CopyOnWriteArrayList<>();
+        BatchLoader<Integer, String> loader = Promises.batchLoader(keys -> lookup(calls, keys), 100, Duration.ofSeconds(10));
+        JPromise<String> promise = Promises.memoize(loader.load(7).unwrap(Uni.class));
+        promise.async();
+        loader.dispatch();
+        Assertions.assertEquals("v7", promise.block(Duration.ofSeconds(5)));
+        Assertions.assertEquals(1, calls.size());
+    }
+
+    @Test
+    public void batchFailureFailsEveryCaller() {
+        BatchLoader<Integer, String> loader = Promises.batchLoader(
+            keys -> {
+                throw new IllegalStateException("down");
+            },
+            100,
+            Duration.ofMillis(5)
+        );
+        JPromise<List<Settled<String>>> settled = Promises.allSettled(loader.load(1), loader.load(2));
+        for (Settled<String> result : settled.block()) {
+            Assertions.assertTrue(result.getError() instanceof IllegalStateException);
+        }
+    }
+
+    @Test
+    public void nullBatchUniFailsEveryCaller() {
+        BatchLoader<Integer, String> loader = Promises.batchLoader(keys -> null, 10, Duration.ofMillis(1));
+        Assertions.assertThrows(NullPointerException.class, () -> loader.load(1).block(Duration.ofSeconds(5)));
+    }
+}
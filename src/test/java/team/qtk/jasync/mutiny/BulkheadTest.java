@@ -0,0 +1,110 @@
+package team.qtk.jasync.mutiny;
+
+import io.github.vipcxj.jasync.spec.Handle;
+import io.github.vipcxj.jasync.spec.JPromise;
+import io.smallrye.mutiny.Uni;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class BulkheadTest {
+
+    private static JPromise<Integer> tracked(AtomicInteger running, AtomicInteger peak, int value, long millis) {
+        return Promises.from(
+            Uni
+                .createFrom()
+                .item(() -> {
+                    peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    return value;
+                })
+                .onItem()
+                .delayIt()
+                .by(Duration.ofMillis(millis))
+                .onTermination()
+                .invoke(running::decrementAndGet)
+        );
+    }
+
+    @Test
+    public void limitsConcurrency() {
+        Bulkhead bulkhead = Promises.bulkhead("limitsConcurrency", 2, 10, null);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        List<JPromise<Integer>> promises = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            int value = i;
+            promises.add(bulkhead.execute(() -> tracked(running, peak, value, 10)));
+        }
+        List<Integer> results = Promises.all(promises).block();
+        for (int i = 0; i < 8; i++) {
+            Assertions.assertEquals(i, results.get(i));
+        }
+        Assertions.assertEquals(2, peak.get());
+        Assertions.assertEquals(0, bulkhead.getActiveCount());
+        Assertions.assertSame(bulkhead, Promises.bulkhead("limitsConcurrency", 5, 5, null));
+    }
+
+    @Test
+    public void rejectsWhenQueueIsFull() {
+        Bulkhead bulkhead = Promises.bulkhead("rejectsWhenQueueIsFull", 1, 1, null);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        JPromise<Integer> first = bulkhead.execute(() -> tracked(running, peak, 1, 50));
+        JPromise<Integer> second = bulkhead.execute(() -> tracked(running, peak, 2, 1));
+        JPromise<Integer> third = bulkhead.execute(() -> tracked(running, peak, 3, 1));
+        JPromise<List<Settled<Integer>>> settled = Promises.allSettled(first, second, third);
+        List<Settled<Integer>> results = settled.block();
+        Assertions.assertEquals(1, results.get(0).getValue());
+        Assertions.assertEquals(2, results.get(1).getValue());
+        Assertions.assertTrue(results.get(2).getError() instanceof RejectedExecutionException);
+        Assertions.assertEquals(1, bulkhead.getRejectedCount());
+    }
+
+    @Test
+    public void shedsAfterQueueTimeout() {
+        Bulkhead bulkhead = Promises.bulkhead("shedsAfterQueueTimeout", 1, 10, Duration.ofMillis(20));
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        AtomicInteger called = new AtomicInteger();
+        Handle slow = bulkhead.execute(() -> tracked(running, peak, 1, 2000)).async();
+        JPromise<Integer> waiting = bulkhead.execute(() -> {
+            called.incrementAndGet();
+            return UniPromise.just(2);
+        });
+        Assertions.assertThrows(RejectedExecutionException.class, waiting::block);
+        Assertions.assertEquals(0, called.get());
+        Assertions.assertEquals(1, bulkhead.getTimedOutCount());
+        Assertions.assertEquals(0, bulkhead.getQueuedCount());
+        slow.cancel();
+        // 取消释放许可
+        Assertions.assertEquals(3, bulkhead.execute(() -> UniPromise.just(3)).block(Duration.ofSeconds(5)));
+        Assertions.assertEquals(0, bulkhead.getActiveCount());
+    }
+
+    @Test
+    public void cancelledWaiterLeavesQueue() {
+        Bulkhead bulkhead = Promises.bulkhead("cancelledWaiterLeavesQueue", 1, 10, null);
+        AtomicInteger called = new AtomicInteger();
+        TestSupport.Gate<Integer> running = TestSupport.gate();
+        Handle first = bulkhead.execute(running::promise).async();
+        Handle waiter = bulkhead
+            .execute(() -> {
+                called.incrementAndGet();
+                return UniPromise.just(2);
+            })
+            .async();
+        Assertions.assertEquals(1, bulkhead.getQueuedCount());
+        waiter.cancel();
+        Assertions.assertEquals(0, bulkhead.getQueuedCount());
+        running.complete(1);
+        Assertions.assertEquals(3, bulkhead.execute(() -> UniPromise.just(3)).block(Duration.ofSeconds(5)));
+        Assertions.assertEquals(0, called.get());
+        Assertions.assertFalse(first.isCanceled());
+    }
+}
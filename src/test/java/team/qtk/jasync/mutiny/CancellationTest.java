@@ -0,0 +1,148 @@
+package team.qtk.jasync.mutiny;
+
+import io.github.vipcxj.jasync.spec.Handle;
+import io.github.vipcxj.jasync.spec.JAsync;
+import io.github.vipcxj.jasync.spec.JPromise;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import static team.qtk.jasync.mutiny.TestSupport.delayed;
+import static team.qtk.jasync.mutiny.TestSupport.gate;
+import static team.qtk.jasync.mutiny.TestSupport.sleep;
+import static team.qtk.jasync.mutiny.TestSupport.waitUntil;
+
+public class CancellationTest {
+
+    @Test
+    public void loopStopsOnCancel() throws InterruptedException {
+        AtomicInteger iterations = new AtomicInteger();
+        AtomicInteger finallyCount = new AtomicInteger();
+        CountDownLatch reached = new CountDownLatch(1);
+        CountDownLatch resume = new CountDownLatch(1);
+        Handle handle = Promises
+            .from(Uni.createFrom().voidItem(), Infrastructure.getDefaultWorkerPool())
+            .then(() ->
+                JAsync
+                    .just()
+                    .doWhileVoid(
+                        () -> true,
+                        () -> {
+                            if (iterations.incrementAndGet() == 5) {
+                                // 第5轮执行中取消
+                                reached.countDown();
+                                resume.await();
+                            }
+                            return null;
+                        }
+                    )
+            )
+            .doFinally(() -> {
+                finallyCount.incrementAndGet();
+                return null;
+            })
+            .async();
+        Assertions.assertTrue(reached.await(5, TimeUnit.SECONDS));
+        handle.cancel();
+        Assertions.assertEquals(1, finallyCount.get());
+        resume.countDown();
+        // 取消时正在执行的这一轮结束后不再开始下一轮
+        sleep(20);
+        Assertions.assertEquals(5, iterations.get());
+        Assertions.assertTrue(handle.isCanceled());
+    }
+
+    @Test
+    public void finallyRunsOnceOnCancel() {
+        AtomicInteger finallyCount = new AtomicInteger();
+        AtomicInteger continued = new AtomicInteger();
+        TestSupport.Gate<Void> block = gate();
+        Handle handle = Promises
+            .from(Uni.createFrom().<Integer>nothing())
+            .doFinally(() -> block.promise().then(() -> {
+                finallyCount.incrementAndGet();
+                return null;
+            }))
+            .then(v -> {
+                continued.incrementAndGet();
+                return JAsync.just(v);
+            })
+            .async();
+        handle.cancel();
+        handle.cancel();
+        Assertions.assertEquals(1, block.subscriptions.get());
+        block.complete(null);
+        Assertions.assertEquals(1, finallyCount.get());
+        Assertions.assertEquals(0, continued.get());
+    }
+
+    @Test
+    public void cancelWhileFinallyRunsDoesNotRunItAgain() {
+        AtomicInteger started = new AtomicInteger();
+        AtomicInteger finished = new AtomicInteger();
+        TestSupport.Gate<Void> block = gate();
+        Handle handle = delayed(1, 1)
+            .doFinally(() -> {
+                started.incrementAndGet();
+                return block.promise().then(() -> {
+                    finished.incrementAndGet();
+                    return null;
+                });
+            })
+            .async();
+        waitUntil(() -> block.subscriptions.get() == 1);
+        handle.cancel();
+        // finally块不因取消而中断
+        Assertions.assertEquals(0, block.cancellations.get());
+        block.complete(null);
+        Assertions.assertEquals(1, finished.get());
+        Assertions.assertEquals(1, started.get());
+        Assertions.assertTrue(handle.isCanceled());
+    }
+
+    @Test
+    public void finallyRunsPerSubscription() {
+        AtomicInteger attempts = new AtomicInteger();
+        AtomicInteger finallyCount = new AtomicInteger();
+        JPromise<Integer> promise = Promises
+            .from(Uni.createFrom().item(() -> {
+                // 第一次订阅失败，第二次成功
+                if (attempts.incrementAndGet() == 1) {
+                    throw new IllegalStateException("first");
+                }
+                return 2;
+            }))
+            .doFinally(() -> {
+                finallyCount.incrementAndGet();
+                return null;
+            });
+        Assertions.assertThrows(IllegalStateException.class, promise::block);
+        Assertions.assertEquals(1, finallyCount.get());
+        Assertions.assertEquals(2, promise.block());
+        Assertions.assertEquals(2, finallyCount.get());
+    }
+
+    @Test
+    public void finallyFailureReplacesResult() {
+        JPromise<Integer> failing = delayed(1, 1).doFinally(() -> {
+            throw new IllegalArgumentException("finally");
+        });
+        Assertions.assertEquals(
+            "finally",
+            Assertions.assertThrows(IllegalArgumentException.class, failing::block).getMessage()
+        );
+        JPromise<Integer> original = Promises
+            .<Integer>from(Uni.createFrom().failure(new IllegalStateException("body")))
+            .doFinally(() -> delayed(null, 1));
+        Assertions.assertEquals(
+            "body",
+            Assertions.assertThrows(IllegalStateException.class, original::block).getMessage()
+        );
+    }
+}
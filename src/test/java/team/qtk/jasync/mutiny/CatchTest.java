@@ -0,0 +1,65 @@
+package team.qtk.jasync.mutiny;
+
+import io.github.vipcxj.jasync.spec.BreakException;
+import io.github.vipcxj.jasync.spec.JAsync;
+import io.github.vipcxj.jasync.spec.JPromise;
+import io.github.vipcxj.jasync.spec.catcher.Catcher;
+import io.smallrye.mutiny.Uni;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class CatchTest {
+
+    private static JPromise<String> failAsync(Throwable t) {
+        return Promises.from(Uni.createFrom().failure(t));
+    }
+
+    private static List<Catcher<?, String>> catchers() {
+        return List.of(
+            new Catcher<>(IllegalArgumentException.class, e -> JAsync.just("illegal argument")),
+            new Catcher<>(IOException.class, e -> JAsync.just("io " + e.getMessage())),
+            new Catcher<>(RuntimeException.class, e -> JAsync.just("runtime"))
+        );
+    }
+
+    @Test
+    public void dispatchToFirstMatchingCatcher() {
+        for (int i = 0; i < 3; ++i) {
+            Assertions.assertEquals("illegal argument", failAsync(new IllegalArgumentException()).doCatch(catchers()).block());
+            Assertions.assertEquals("io missing", failAsync(new FileNotFoundException("missing")).doCatch(catchers()).block());
+            Assertions.assertEquals("runtime", failAsync(new IllegalStateException()).doCatch(catchers()).block());
+            Assertions.assertEquals("runtime", JAsync.<String>error(new IllegalStateException()).doCatch(catchers()).block());
+        }
+    }
+
+    @Test
+    public void unmatchedExceptionPropagates() {
+        Exception error = new Exception();
+        Exception thrown = Assertions.assertThrows(Exception.class, () -> failAsync(error).doCatch(catchers()).block());
+        Assertions.assertSame(error, thrown.getCause() != null ? thrown.getCause() : thrown);
+    }
+
+    @Test
+    public void noFailure() {
+        Assertions.assertEquals("ok", Promises.from(Uni.createFrom().item("ok")).doCatch(catchers()).block());
+    }
+
+    @Test
+    public void controlSignalIsNotCaughtByThrowableCatcher() {
+        List<Catcher<?, String>> catchers = List.of(new Catcher<>(Throwable.class, e -> JAsync.just("caught")));
+        Assertions.assertThrows(BreakException.class, () -> failAsync(new BreakException(null)).doCatch(catchers).block());
+        Assertions.assertEquals("caught", failAsync(new IllegalStateException()).doCatch(catchers).block());
+    }
+
+    @Test
+    public void catcherTableIsShared() {
+        Assertions.assertSame(CatcherTable.ofCatchers(catchers()), CatcherTable.ofCatchers(catchers()));
+        Assertions.assertEquals(1, CatcherTable.ofCatchers(catchers()).indexOf(new FileNotFoundException()));
+        Assertions.assertEquals(-1, CatcherTable.ofCatchers(catchers()).indexOf(new Error()));
+    }
+}
@@ -0,0 +1,96 @@
+package team.qtk.jasync.mutiny;
+
+import io.github.vipcxj.jasync.spec.JAsync;
+import io.github.vipcxj.jasync.spec.JPromise;
+import io.smallrye.mutiny.CompositeException;
+import io.smallrye.mutiny.Uni;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import static team.qtk.jasync.mutiny.TestSupport.delayed;
+import static team.qtk.jasync.mutiny.TestSupport.failed;
+import static team.qtk.jasync.mutiny.TestSupport.gate;
+
+public class CombinatorsTest {
+
+    private final AtomicInteger cancelled = new AtomicInteger();
+
+    private <T> JPromise<T> never() {
+        return Promises.from(Uni.createFrom().<T>nothing().onCancellation().invoke(cancelled::incrementAndGet));
+    }
+
+    @Test
+    public void allRunsConcurrently() {
+        TestSupport.Gate<Integer> first = gate();
+        TestSupport.Gate<Integer> second = gate();
+        TestSupport.Gate<Integer> fourth = gate();
+        CompletableFuture<List<Integer>> future = Promises
+            .all(first.promise(), second.promise(), JAsync.just(3), fourth.promise())
+            .<Uni<List<Integer>>>unwrap(Uni.class)
+            .subscribeAsCompletionStage();
+        // 全部同时订阅，不等前一个完成
+        Assertions.assertEquals(1, first.subscriptions.get());
+        Assertions.assertEquals(1, second.subscriptions.get());
+        Assertions.assertEquals(1, fourth.subscriptions.get());
+        // 结果按参数顺序，与完成顺序无关
+        fourth.complete(null);
+        second.complete(2);
+        Assertions.assertFalse(future.isDone());
+        first.complete(1);
+        Assertions.assertEquals(Arrays.asList(1, 2, 3, null), future.join());
+        Assertions.assertEquals(List.of(), Promises.all(List.<JPromise<Integer>>of()).block());
+    }
+
+    @Test
+    public void allFailsFast() {
+        JPromise<List<Integer>> promise = Promises.all(this.<Integer>never(), failed(new IllegalStateException(), 10), never());
+        Assertions.assertThrows(IllegalStateException.class, promise::block);
+        Assertions.assertEquals(2, cancelled.get());
+    }
+
+    @Test
+    public void allSettled() {
+        IllegalStateException error = new IllegalStateException();
+        List<Settled<Integer>> results = Promises.allSettled(delayed(1, 10), failed(error, 10), JAsync.just(3)).block();
+        Assertions.assertTrue(results.get(0).isFulfilled());
+        Assertions.assertEquals(1, results.get(0).getValue());
+        Assertions.assertTrue(results.get(1).isRejected());
+        Assertions.assertSame(error, results.get(1).getError());
+        Assertions.assertEquals(3, results.get(2).getValue());
+    }
+
+    @Test
+    public void anyTakesFirstSuccess() {
+        JPromise<Integer> promise = Promises.any(failed(new IllegalStateException(), 1), delayed(2, 20), never());
+        Assertions.assertEquals(2, promise.block());
+        Assertions.assertEquals(1, cancelled.get());
+    }
+
+    @Test
+    public void anyFailsWhenAllFail() {
+        JPromise<Integer> promise = Promises.any(
+            failed(new IllegalStateException(), 5),
+            failed(new IllegalArgumentException(), 10)
+        );
+        CompositeException e = Assertions.assertThrows(CompositeException.class, promise::block);
+        Assertions.assertEquals(2, e.getCauses().size());
+        Assertions.assertThrows(NoSuchElementException.class, Promises.any(List.<JPromise<Integer>>of())::block);
+    }
+
+    @Test
+    public void raceTakesFirstSettled() {
+        Assertions.assertEquals(1, Promises.race(delayed(1, 5), never()).block());
+        Assertions.assertEquals(1, cancelled.get());
+        TestSupport.Gate<Integer> slow = gate();
+        JPromise<Integer> failure = Promises.race(failed(new IllegalStateException(), 5), slow.promise());
+        Assertions.assertThrows(IllegalStateException.class, failure::block);
+        Assertions.assertEquals(1, slow.cancellations.get());
+    }
+}
@@ -0,0 +1,142 @@
+package team.qtk.jasync.mutiny;
+
+import io.github.vipcxj.jasync.spec.JAsync;
+import io.github.vipcxj.jasync.spec.JPromise;
+import io.smallrye.mutiny.Context;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ContextPropagationTest {
+
+    private static final ThreadLocal<String> REQUEST_ID = new ThreadLocal<>();
+
+    private final ContextPropagator propagator = new ContextPropagator() {
+        @Override
+        public Object apply(Context context) {
+            String previous = REQUEST_ID.get();
+            REQUEST_ID.set(context.getOrElse("requestId", () -> null));
+            return previous;
+        }
+
+        @Override
+        public void restore(Object previous) {
+            REQUEST_ID.set((String) previous);
+        }
+    };
+
+    @AfterEach
+    public void tearDown() {
+        Promises.removeContextPropagator(propagator);
+    }
+
+    private static <T> JPromise<T> onWorker(T value) {
+        return Promises.from(Uni.createFrom().item(value).emitOn(Infrastructure.getDefaultWorkerPool()));
+    }
+
+    @Test
+    public void contextAcrossAwaits() {
+        JPromise<String> promise = onWorker(1)
+            .then(v -> onWorker(v + 1))
+            .then(v -> Promises.context())
+            .then(context -> JAsync.just(context.<String>get("requestId")));
+        Assertions.assertEquals("r1", Promises.withContext(promise, Context.of("requestId", "r1")).block());
+    }
+
+    @Test
+    public void threadStateRestoredOnResume() {
+        Promises.addContextPropagator(propagator);
+        List<String> seen = Collections.synchronizedList(new ArrayList<>());
+        int[] i = { 0 };
+        JPromise<Void> promise = onWorker(1)
+            .then(v -> {
+                seen.add(REQUEST_ID.get());
+                return onWorker(v);
+            })
+            .then(v -> JAsync.<Integer>error(new IllegalStateException()))
+            .doCatch(IllegalStateException.class, e -> {
+                seen.add(REQUEST_ID.get());
+                return JAsync.just(0);
+            })
+            .then(() ->
+                JAsync
+                    .just()
+                    .doWhileVoid(
+                        () -> i[0] < 2,
+                        () -> {
+                            i[0]++;
+                            seen.add(REQUEST_ID.get());
+                            return onWorker(0).then(() -> null);
+                        }
+                    )
+            );
+        Promises.withContext(promise, Context.of("requestId", "r2")).block();
+        Assertions.assertEquals(List.of("r2", "r2", "r2", "r2"), seen);
+        // 执行结束后worker线程恢复原状态
+        String after = Uni
+            .createFrom()
+            .item(REQUEST_ID::get)
+            .runSubscriptionOn(Infrastructure.getDefaultWorkerPool())
+            .await()
+            .indefinitely();
+        Assertions.assertNull(after);
+        Assertions.assertNull(REQUEST_ID.get());
+    }
+
+    @Test
+    public void finallyAndParallelBodies() {
+        Promises.addContextPropagator(propagator);
+        List<String> seen = Collections.synchronizedList(new ArrayList<>());
+        JPromise<Void> promise = onWorker(1)
+            .then(v ->
+                Promises.doForEachParallel(
+                    List.of(1, 2, 3),
+                    2,
+                    e -> {
+                        seen.add(REQUEST_ID.get());
+                        return onWorker(e).then(() -> null);
+                    }
+                )
+            )
+            .doFinally(() -> {
+                seen.add(REQUEST_ID.get());
+                return null;
+            });
+        Promises.withContext(promise, Context.of("requestId", "r4")).block();
+        Assertions.assertEquals(List.of("r4", "r4", "r4", "r4"), seen);
+        // 取消时独立执行的finally块
+        seen.clear();
+        Promises
+            .withContext(
+                Promises
+                    .from(Uni.createFrom().<Integer>nothing())
+                    .doFinally(() -> {
+                        seen.add(REQUEST_ID.get());
+                        return null;
+                    }),
+                Context.of("requestId", "r5")
+            )
+            .async()
+            .cancel();
+        Assertions.assertEquals(List.of("r5"), seen);
+        Assertions.assertNull(REQUEST_ID.get());
+    }
+
+    @Test
+    public void nothingRegistered() {
+        List<String> seen = Collections.synchronizedList(new ArrayList<>());
+        JPromise<Integer> promise = onWorker(1).then(v -> {
+            seen.add(REQUEST_ID.get());
+            return JAsync.just(v);
+        });
+        Promises.withContext(promise, Context.of("requestId", "r3")).block();
+        Assertions.assertEquals(Collections.singletonList(null), seen);
+    }
+}
@@ -0,0 +1,91 @@
+package team.qtk.jasync.mutiny;
+
+import io.github.vipcxj.jasync.spec.JAsync;
+import io.github.vipcxj.jasync.spec.JPromise;
+import io.smallrye.mutiny.TimeoutException;
+import io.smallrye.mutiny.Uni;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import static team.qtk.jasync.mutiny.TestSupport.delayed;
+import static team.qtk.jasync.mutiny.TestSupport.gate;
+import static team.qtk.jasync.mutiny.TestSupport.sleep;
+
+public class DeadlineTest {
+
+    @Test
+    public void completesInTime() {
+        Assertions.assertEquals(1, Promises.withDeadline(delayed(1, 5), Duration.ofSeconds(5)).block());
+    }
+
+    @Test
+    public void cancelsPendingAwait() {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        AtomicBoolean continued = new AtomicBoolean();
+        JPromise<Integer> promise = Promises
+            .from(Uni.createFrom().<Integer>nothing().onCancellation().invoke(() -> cancelled.set(true)))
+            .then(v -> {
+                continued.set(true);
+                return JAsync.just(v);
+            });
+        Assertions.assertThrows(TimeoutException.class, Promises.withDeadline(promise, Duration.ofMillis(50))::block);
+        Assertions.assertTrue(cancelled.get());
+        Assertions.assertFalse(continued.get());
+    }
+
+    @Test
+    public void nestedDeadlineInheritsEarlierOne() {
+        // 内层声明了更长的超时，仍受外层50ms约束
+        TestSupport.Gate<Integer> pending = gate();
+        JPromise<Integer> inner = Promises.withDeadline(pending.promise(), Duration.ofSeconds(10));
+        JPromise<Integer> outer = Promises.withDeadline(delayed(0, 1).then(v -> inner), Duration.ofMillis(50));
+        Assertions.assertThrows(TimeoutException.class, outer::block);
+        Assertions.assertEquals(1, pending.cancellations.get());
+        JPromise<Duration> remaining = Promises.withDeadline(
+            delayed(0, 1).then(v -> Promises.withDeadline(Promises.remainingTime(), Duration.ofSeconds(10))),
+            Duration.ofSeconds(1)
+        );
+        Assertions.assertTrue(remaining.block().compareTo(Duration.ofSeconds(1)) <= 0);
+        Assertions.assertNull(Promises.remainingTime().block());
+    }
+
+    @Test
+    public void loopStopsWhenTimeIsUp() {
+        AtomicInteger iterations = new AtomicInteger();
+        JPromise<Void> loop = delayed(0, 1)
+            .then(() ->
+                JAsync
+                    .just()
+                    .doWhileVoid(
+                        () -> true,
+                        () -> {
+                            iterations.incrementAndGet();
+                            sleep(1);
+                            return null;
+                        }
+                    )
+            );
+        Assertions.assertThrows(TimeoutException.class, Promises.withDeadline(loop, Duration.ofMillis(30))::block);
+        int count = iterations.get();
+        Assertions.assertTrue(count > 0);
+        // 超时后最多再执行完当前这一轮
+        sleep(20);
+        Assertions.assertTrue(iterations.get() - count <= 1, "iterations: " + iterations.get() + " after " + count);
+    }
+
+    @Test
+    public void expiredDeadlineFailsFast() {
+        AtomicBoolean subscribed = new AtomicBoolean();
+        JPromise<Integer> promise = Promises.from(Uni.createFrom().item(() -> {
+            subscribed.set(true);
+            return 1;
+        }));
+        Assertions.assertThrows(TimeoutException.class, Promises.withDeadline(promise, Duration.ZERO)::block);
+        Assertions.assertFalse(subscribed.get());
+    }
+}
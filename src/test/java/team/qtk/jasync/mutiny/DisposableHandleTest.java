@@ -0,0 +1,79 @@
+package team.qtk.jasync.mutiny;
+
+import io.smallrye.mutiny.Uni;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class DisposableHandleTest {
+
+    @Test
+    public void completed() throws Exception {
+        TestSupport.Gate<Integer> result = TestSupport.gate();
+        DisposableHandle<Integer> handle = new UniPromise<>(result.uni()).async();
+        Assertions.assertFalse(handle.isDone());
+        result.complete(1);
+        Assertions.assertEquals(1, handle.toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(DisposableHandle.State.COMPLETED, handle.getState());
+        Assertions.assertTrue(handle.isDone());
+        Assertions.assertFalse(handle.isCanceled());
+        // 结束后取消无效
+        handle.cancel();
+        Assertions.assertEquals(DisposableHandle.State.COMPLETED, handle.getState());
+    }
+
+    @Test
+    public void failed() {
+        DisposableHandle<Integer> handle = new UniPromise<Integer>(
+            Uni.createFrom().failure(new IllegalStateException())
+        ).async();
+        Assertions.assertEquals(DisposableHandle.State.FAILED, handle.getState());
+        ExecutionException e = Assertions.assertThrows(
+            ExecutionException.class,
+            () -> handle.toCompletionStage().toCompletableFuture().get()
+        );
+        Assertions.assertTrue(e.getCause() instanceof IllegalStateException);
+    }
+
+    @Test
+    public void cancelled() {
+        DisposableHandle<Integer> handle = new UniPromise<>(Uni.createFrom().<Integer>nothing()).async();
+        CompletableFuture<Integer> future = handle.toCompletionStage().toCompletableFuture();
+        Assertions.assertEquals(DisposableHandle.State.PENDING, handle.getState());
+        handle.cancel();
+        Assertions.assertTrue(handle.isCanceled());
+        Assertions.assertThrows(CancellationException.class, future::join);
+    }
+
+    @Test
+    public void callbacksRunInOrder() {
+        TestSupport.Gate<Integer> result = TestSupport.gate();
+        DisposableHandle<Integer> handle = new UniPromise<>(result.uni()).async();
+        List<String> calls = new ArrayList<>();
+        handle
+            .onComplete((v, e) -> calls.add("a" + v))
+            .onComplete((v, e) -> calls.add("b" + v));
+        Assertions.assertEquals(List.of(), calls);
+        result.complete(1);
+        // 结束后注册立即执行
+        handle.onComplete((v, e) -> calls.add("c" + v));
+        Assertions.assertEquals(List.of("a1", "b1", "c1"), calls);
+    }
+
+    @Test
+    public void legacyConstructor() {
+        DisposableHandle<Object> handle = new DisposableHandle<>(
+            onCancel -> Uni.createFrom().nothing().onCancellation().invoke(onCancel).subscribe().with(v -> {
+            })
+        );
+        handle.cancel();
+        Assertions.assertTrue(handle.isCanceled());
+    }
+}
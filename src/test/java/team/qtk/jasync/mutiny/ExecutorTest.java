@@ -0,0 +1,139 @@
+package team.qtk.jasync.mutiny;
+
+import io.github.vipcxj.jasync.spec.JAsync;
+import io.github.vipcxj.jasync.spec.JPromise;
+import io.smallrye.mutiny.Uni;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static team.qtk.jasync.mutiny.TestSupport.delayedUni;
+
+public class ExecutorTest {
+
+    private ExecutorService pool;
+    private AtomicInteger hops;
+    private Executor executor;
+
+    @BeforeEach
+    public void setup() {
+        pool = Executors.newFixedThreadPool(2, r -> new Thread(r, "cpu-pool"));
+        hops = new AtomicInteger();
+        executor = task -> {
+            hops.incrementAndGet();
+            pool.execute(task);
+        };
+    }
+
+    @AfterEach
+    public void tearDown() {
+        Promises.setDefaultExecutor(null);
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void continuationRunsOnExecutor() {
+        List<String> threads = Collections.synchronizedList(new ArrayList<>());
+        JPromise<Integer> promise = Promises
+            .from(delayedUni(1, 5), executor)
+            .then(v -> {
+                threads.add(Thread.currentThread().getName());
+                return JAsync.just(v + 1);
+            })
+            .then(v -> {
+                threads.add(Thread.currentThread().getName());
+                return JAsync.just(v + 1);
+            });
+        Assertions.assertEquals(3, promise.block());
+        Assertions.assertEquals(List.of("cpu-pool", "cpu-pool"), threads);
+        // 已在executor上的后续阶段不再切换线程
+        Assertions.assertEquals(1, hops.get());
+    }
+
+    @Test
+    public void hopBackAfterInnerAwait() {
+        List<String> threads = Collections.synchronizedList(new ArrayList<>());
+        JPromise<Integer> promise = Promises
+            .from(delayedUni(1, 5), executor)
+            .then(v -> Promises.from(delayedUni(v + 1, 5)))
+            .then(v -> {
+                threads.add(Thread.currentThread().getName());
+                return JAsync.just(v);
+            });
+        Assertions.assertEquals(2, promise.block());
+        Assertions.assertEquals(List.of("cpu-pool"), threads);
+        Assertions.assertEquals(2, hops.get());
+    }
+
+    @Test
+    public void failureRunsOnExecutor() {
+        List<String> threads = Collections.synchronizedList(new ArrayList<>());
+        JPromise<Integer> promise = Promises
+            .from(delayedUni(1, 5), executor)
+            .<Integer>then(v -> Promises.from(Uni.createFrom().failure(new IllegalStateException())))
+            .doCatch(IllegalStateException.class, e -> {
+                threads.add(Thread.currentThread().getName());
+                return JAsync.just(0);
+            });
+        Assertions.assertEquals(0, promise.block());
+        Assertions.assertEquals(List.of("cpu-pool"), threads);
+    }
+
+    @Test
+    public void rejectedExecutionFailsBothPaths() {
+        Executor rejecting = task -> {
+            throw new RejectedExecutionException("shutdown");
+        };
+        RejectedExecutionException onItem = Assertions.assertThrows(
+            RejectedExecutionException.class,
+            () -> Promises.from(Uni.createFrom().item(1), rejecting).block()
+        );
+        Assertions.assertEquals(0, onItem.getSuppressed().length);
+        IllegalStateException original = new IllegalStateException();
+        RejectedExecutionException onFailure = Assertions.assertThrows(
+            RejectedExecutionException.class,
+            () -> Promises.from(Uni.createFrom().failure(original), rejecting).block()
+        );
+        Assertions.assertSame(original, onFailure.getSuppressed()[0]);
+    }
+
+    @Test
+    public void defaultExecutor() {
+        Promises.setDefaultExecutor(executor);
+        List<String> threads = Collections.synchronizedList(new ArrayList<>());
+        Promises
+            .from(delayedUni(1, 5))
+            .then(v -> {
+                threads.add(Thread.currentThread().getName());
+                return JAsync.just(v);
+            })
+            .block();
+        Assertions.assertEquals(List.of("cpu-pool"), threads);
+    }
+
+    @Test
+    public void noExecutorNoHop() {
+        String caller = Thread.currentThread().getName();
+        List<String> threads = new ArrayList<>();
+        Promises
+            .from(Uni.createFrom().item(1))
+            .then(v -> {
+                threads.add(Thread.currentThread().getName());
+                return JAsync.just(v);
+            })
+            .block();
+        Assertions.assertEquals(List.of(caller), threads);
+        Assertions.assertEquals(0, hops.get());
+    }
+}
@@ -0,0 +1,126 @@
+package team.qtk.jasync.mutiny;
+
+import io.github.vipcxj.jasync.spec.JAsync;
+import io.github.vipcxj.jasync.spec.JPromise;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ForEachTest {
+
+    @Test
+    public void longArray() {
+        long[] array = new long[5_000_000];
+        Arrays.setAll(array, i -> i);
+        long[] sum = { 0 };
+        JAsync
+            .just()
+            .doForEachLongArray(
+                array,
+                v -> {
+                    sum[0] += v;
+                    return null;
+                },
+                null
+            )
+            .block();
+        Assertions.assertEquals((long) array.length * (array.length - 1) / 2, sum[0]);
+    }
+
+    @Test
+    public void doubleArrayWithAsyncElements() {
+        double[] array = { 0.5, 1.5, 2.5, 3.5 };
+        double[] sum = { 0 };
+        JAsync
+            .just()
+            .doForEachDoubleArray(
+                array,
+                v ->
+                    Promises
+                        .from(Uni.createFrom().item(v).emitOn(Infrastructure.getDefaultWorkerPool()))
+                        .then(d -> {
+                            sum[0] += d;
+                            return null;
+                        }),
+                null
+            )
+            .block();
+        Assertions.assertEquals(8.0, sum[0]);
+    }
+
+    @Test
+    public void intArrayContinueAndBreak() {
+        int[] array = { 1, 2, 3, 4, 5, 6, 7, 8 };
+        List<Integer> visited = new ArrayList<>();
+        JAsync
+            .just()
+            .doForEachIntArray(
+                array,
+                v -> {
+                    if (v % 2 == 0) {
+                        JAsync.doContinue(null);
+                    }
+                    if (v > 5) {
+                        JAsync.doBreak(null);
+                    }
+                    visited.add(v);
+                    return null;
+                },
+                null
+            )
+            .block();
+        Assertions.assertEquals(List.of(1, 3, 5), visited);
+    }
+
+    @Test
+    public void otherPrimitiveArrays() {
+        StringBuilder out = new StringBuilder();
+        JAsync
+            .just()
+            .doForEachBooleanArray(new boolean[] { true, false }, v -> append(out, v), null)
+            .then(() -> JAsync.just().doForEachByteArray(new byte[] { 1, 2 }, v -> append(out, v), null))
+            .then(() -> JAsync.just().doForEachCharArray(new char[] { 'a', 'b' }, v -> append(out, v), null))
+            .then(() -> JAsync.just().doForEachShortArray(new short[] { 3, 4 }, v -> append(out, v), null))
+            .then(() -> JAsync.just().doForEachFloatArray(new float[] { 5f }, v -> append(out, v), null))
+            .block();
+        Assertions.assertEquals("true,false,1,2,a,b,3,4,5.0,", out.toString());
+    }
+
+    @Test
+    public void iterableAndObjectArray() {
+        List<String> out = new ArrayList<>();
+        JAsync
+            .just()
+            .doForEachIterable(List.of("a", "b"), v -> {
+                out.add(v);
+                return null;
+            }, null)
+            .then(() ->
+                JAsync.just().doForEachObjectArray(new String[] { "c", "d" }, v -> {
+                    out.add(v);
+                    return null;
+                }, null)
+            )
+            .block();
+        Assertions.assertEquals(List.of("a", "b", "c", "d"), out);
+    }
+
+    @Test
+    public void emptyArray() {
+        Assertions.assertNull(JAsync.just().doForEachIntArray(new int[0], v -> {
+            Assertions.fail();
+            return null;
+        }, null).block());
+    }
+
+    private static <T> JPromise<Void> append(StringBuilder out, T value) {
+        out.append(value).append(',');
+        return null;
+    }
+}
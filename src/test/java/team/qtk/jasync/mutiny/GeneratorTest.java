@@ -0,0 +1,126 @@
+package team.qtk.jasync.mutiny;
+
+import io.github.vipcxj.jasync.spec.JAsync;
+import io.github.vipcxj.jasync.spec.JPromise;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.helpers.test.AssertSubscriber;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class GeneratorTest {
+
+    private final AtomicInteger emitted = new AtomicInteger();
+
+    private JPromise<Void> range(AsyncEmitter<Integer> emitter, int count) {
+        int[] i = { 0 };
+        return JAsync
+            .just()
+            .doWhileVoid(
+                () -> i[0] < count,
+                () ->
+                    emitter
+                        .emit(i[0]++)
+                        .then(() -> {
+                            emitted.incrementAndGet();
+                            return null;
+                        })
+            );
+    }
+
+    @Test
+    public void emitsAll() {
+        Multi<Integer> multi = Promises.generate(emitter -> range(emitter, 10_000));
+        List<Integer> items = multi.collect().asList().await().indefinitely();
+        Assertions.assertEquals(10_000, items.size());
+        Assertions.assertEquals(9_999, items.get(9_999));
+        // 每次订阅重新执行生产者
+        Assertions.assertEquals(3, multi.select().first(3).collect().asList().await().indefinitely().size());
+    }
+
+    @Test
+    public void asyncProducer() {
+        Multi<Integer> multi = Promises.generate(
+            emitter ->
+                Promises
+                    .from(Uni.createFrom().item(1).onItem().delayIt().by(Duration.ofMillis(5)))
+                    .then(v -> emitter.emit(v))
+                    .then(() -> Promises.from(Uni.createFrom().item(2).onItem().delayIt().by(Duration.ofMillis(5))))
+                    .then(v -> emitter.emit(v))
+        );
+        Assertions.assertEquals(List.of(1, 2), multi.collect().asList().await().indefinitely());
+    }
+
+    @Test
+    public void producerSuspendsWithoutDemand() {
+        AssertSubscriber<Integer> subscriber = Promises
+            .<Integer>generate(emitter -> range(emitter, 100))
+            .subscribe()
+            .withSubscriber(AssertSubscriber.create(2));
+        subscriber.assertItems(0, 1);
+        // 第3个元素在等待需求
+        Assertions.assertEquals(2, emitted.get());
+        subscriber.request(3);
+        subscriber.assertItems(0, 1, 2, 3, 4);
+        Assertions.assertEquals(5, emitted.get());
+        subscriber.request(Long.MAX_VALUE);
+        subscriber.assertCompleted();
+        Assertions.assertEquals(100, subscriber.getItems().size());
+    }
+
+    @Test
+    public void cancellationStopsProducer() {
+        AtomicBoolean finallyRan = new AtomicBoolean();
+        AssertSubscriber<Integer> subscriber = Promises
+            .<Integer>generate(
+                emitter ->
+                    range(emitter, 100)
+                        .doFinally(() -> {
+                            finallyRan.set(true);
+                            return null;
+                        })
+            )
+            .subscribe()
+            .withSubscriber(AssertSubscriber.create(3));
+        subscriber.cancel();
+        Assertions.assertTrue(finallyRan.get());
+        Assertions.assertEquals(3, subscriber.getItems().size());
+    }
+
+    @Test
+    public void producerFailure() {
+        Multi<Integer> multi = Promises.generate(
+            emitter -> emitter.emit(1).then(() -> JAsync.error(new IllegalStateException()))
+        );
+        AssertSubscriber<Integer> subscriber = multi.subscribe().withSubscriber(AssertSubscriber.create(10));
+        subscriber.assertItems(1);
+        subscriber.assertFailedWith(IllegalStateException.class);
+    }
+
+    @Test
+    public void invalidRequestFailsOnce() {
+        AtomicBoolean finallyRan = new AtomicBoolean();
+        AssertSubscriber<Integer> subscriber = AssertSubscriber.create(2);
+        new MultiGenerator<Integer>(
+            emitter ->
+                range(emitter, 100)
+                    .doFinally(() -> {
+                        finallyRan.set(true);
+                        return null;
+                    })
+        )
+            .subscribe(subscriber);
+        subscriber.request(0);
+        subscriber.assertFailedWith(IllegalArgumentException.class);
+        // 之后的emit失败，生产者结束，不再有信号
+        Assertions.assertTrue(finallyRan.get());
+        subscriber.request(10);
+        subscriber.assertItems(0, 1);
+    }
+}
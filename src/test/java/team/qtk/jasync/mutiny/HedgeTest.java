@@ -0,0 +1,95 @@
+package team.qtk.jasync.mutiny;
+
+import io.github.vipcxj.jasync.spec.JPromise;
+import io.smallrye.mutiny.CompositeException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import static team.qtk.jasync.mutiny.TestSupport.delayed;
+import static team.qtk.jasync.mutiny.TestSupport.gate;
+
+public class HedgeTest {
+
+    @Test
+    public void fastFirstAttemptDoesNotHedge() {
+        AtomicInteger attempts = new AtomicInteger();
+        JPromise<Integer> promise = Promises.hedge(
+            () -> delayed(attempts.incrementAndGet(), 1),
+            Duration.ofMillis(200),
+            3
+        );
+        Assertions.assertEquals(1, promise.block());
+        Assertions.assertEquals(1, attempts.get());
+    }
+
+    @Test
+    public void slowAttemptIsHedgedAndCancelled() {
+        AtomicInteger attempts = new AtomicInteger();
+        TestSupport.Gate<Integer> slow = gate();
+        JPromise<Integer> promise = Promises.hedge(
+            () -> attempts.incrementAndGet() == 1 ? slow.promise() : delayed(2, 5),
+            Duration.ofMillis(20),
+            3
+        );
+        // 第一次请求一直未完成，由对冲的第二次请求返回结果
+        Assertions.assertEquals(2, promise.block());
+        Assertions.assertEquals(2, attempts.get());
+        Assertions.assertEquals(1, slow.cancellations.get());
+    }
+
+    @Test
+    public void failureStartsNextAttemptImmediately() {
+        AtomicInteger attempts = new AtomicInteger();
+        JPromise<Integer> promise = Promises.hedge(
+            () -> {
+                if (attempts.incrementAndGet() == 1) {
+                    throw new IllegalStateException("first");
+                }
+                return delayed(2, 1);
+            },
+            Duration.ofSeconds(10),
+            2
+        );
+        // 第一次失败后不等10秒的延迟
+        Assertions.assertEquals(2, promise.block(Duration.ofSeconds(5)));
+    }
+
+    @Test
+    public void allAttemptsFail() {
+        AtomicInteger attempts = new AtomicInteger();
+        JPromise<Integer> promise = Promises.hedge(
+            () -> {
+                throw new IllegalStateException("attempt " + attempts.incrementAndGet());
+            },
+            Duration.ofMillis(1),
+            3
+        );
+        CompositeException error = Assertions.assertThrows(CompositeException.class, promise::block);
+        Assertions.assertEquals(3, error.getCauses().size());
+        Assertions.assertEquals(3, attempts.get());
+    }
+
+    @Test
+    public void adaptiveDelayTracksPercentile() {
+        AdaptiveDelay delay = Promises.adaptiveDelay(0.95, Duration.ofMillis(50));
+        Assertions.assertEquals(Duration.ofMillis(50), delay.current());
+        for (int i = 1; i <= 100; i++) {
+            delay.record(Duration.ofMillis(i).toNanos());
+        }
+        // 前64个样本时重新计算：1..64ms的p95
+        Assertions.assertEquals(Duration.ofMillis(61), delay.current());
+        for (int i = 0; i < 28; i++) {
+            delay.record(Duration.ofMillis(1).toNanos());
+        }
+        Assertions.assertEquals(Duration.ofMillis(94), delay.current());
+        AtomicInteger attempts = new AtomicInteger();
+        Assertions.assertEquals(
+            1,
+            Promises.hedge(() -> delayed(attempts.incrementAndGet(), 1), delay, 2).block()
+        );
+    }
+}
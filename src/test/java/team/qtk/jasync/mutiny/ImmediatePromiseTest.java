@@ -0,0 +1,95 @@
+package team.qtk.jasync.mutiny;
+
+import io.github.vipcxj.jasync.spec.JAsync;
+import io.github.vipcxj.jasync.spec.JPromise;
+import io.smallrye.mutiny.Uni;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ImmediatePromiseTest {
+
+    @Test
+    public void thenRunsWithoutSubscription() {
+        List<String> log = new ArrayList<>();
+        JPromise<Integer> promise = UniPromise
+            .just(1)
+            .then(v -> {
+                log.add("then " + v);
+                return JAsync.just(v + 1);
+            });
+        // 已完成的promise，then在构建时即已执行
+        Assertions.assertEquals(List.of("then 1"), log);
+        Assertions.assertTrue(((UniPromise<Integer>) promise).isImmediate());
+        Assertions.assertEquals(2, promise.block());
+        Assertions.assertEquals(2, promise.await());
+    }
+
+    @Test
+    public void thenNullValue() {
+        JPromise<String> promise = JAsync.just().then(() -> JAsync.just("done"));
+        Assertions.assertEquals("done", promise.block());
+    }
+
+    @Test
+    public void thenSkippedOnError() {
+        IllegalStateException error = new IllegalStateException();
+        JPromise<Integer> promise = UniPromise
+            .<Integer>error(error)
+            .then(v -> {
+                Assertions.fail();
+                return JAsync.just(v);
+            });
+        Assertions.assertSame(error, Assertions.assertThrows(IllegalStateException.class, promise::block));
+    }
+
+    @Test
+    public void doCatch() {
+        JPromise<Integer> promise = UniPromise
+            .<Integer>error(new IllegalStateException())
+            .doCatch(IllegalArgumentException.class, e -> JAsync.just(1))
+            .doCatch(IllegalStateException.class, e -> JAsync.just(2));
+        Assertions.assertTrue(((UniPromise<Integer>) promise).isImmediate());
+        Assertions.assertEquals(2, promise.block());
+    }
+
+    @Test
+    public void doFinally() {
+        List<String> log = new ArrayList<>();
+        JPromise<Integer> promise = UniPromise
+            .just(1)
+            .doFinally(() -> {
+                log.add("finally");
+                return null;
+            });
+        Assertions.assertEquals(List.of("finally"), log);
+        Assertions.assertEquals(1, promise.block());
+
+        JPromise<Integer> failed = UniPromise
+            .<Integer>error(new IllegalStateException())
+            .doFinally(() -> {
+                log.add("finally on error");
+                return null;
+            });
+        Assertions.assertEquals(List.of("finally", "finally on error"), log);
+        Assertions.assertThrows(IllegalStateException.class, failed::block);
+    }
+
+    @Test
+    public void mixedWithUni() {
+        JPromise<Integer> promise = Promises
+            .from(Uni.createFrom().item(1))
+            .then(v -> JAsync.just(v + 1))
+            .then(v -> UniPromise.just(v + 1));
+        Assertions.assertEquals(3, promise.block());
+    }
+
+    @Test
+    public void unwrap() {
+        Uni<Integer> uni = UniPromise.just(1).unwrap(Uni.class);
+        Assertions.assertEquals(1, uni.await().indefinitely());
+    }
+}
@@ -0,0 +1,99 @@
+package team.qtk.jasync.mutiny;
+
+import io.github.vipcxj.jasync.spec.JAsync;
+import io.smallrye.mutiny.Uni;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class JfrEventsTest {
+
+    private static List<RecordedEvent> record(Runnable action) throws Exception {
+        Path file = Files.createTempFile("jasync", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("team.qtk.jasync.AsyncStageExecuted");
+            recording.enable("team.qtk.jasync.AwaitSuspended");
+            recording.enable("team.qtk.jasync.AwaitResumed");
+            recording.enable("team.qtk.jasync.LoopIterationBatch");
+            recording.enable("team.qtk.jasync.PromiseFailed");
+            recording.start();
+            action.run();
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static List<RecordedEvent> ofType(List<RecordedEvent> events, String name) {
+        return events
+            .stream()
+            .filter(e -> e.getEventType().getName().equals("team.qtk.jasync." + name))
+            .collect(Collectors.toList());
+    }
+
+    @Test
+    public void stagesAndSuspensions() throws Exception {
+        List<RecordedEvent> events = record(
+            () ->
+                Promises
+                    .from(Uni.createFrom().item(1))
+                    .then(v -> Promises.from(Uni.createFrom().item(v).onItem().delayIt().by(Duration.ofMillis(5))))
+                    .then(v -> JAsync.just(v + 1))
+                    .block()
+        );
+        List<RecordedEvent> stages = ofType(events, "AsyncStageExecuted");
+        Assertions.assertEquals(2, stages.size());
+        Assertions.assertTrue(stages.get(0).getString("stage").startsWith(JfrEventsTest.class.getName()));
+        Assertions.assertEquals(1, ofType(events, "AwaitSuspended").size());
+        List<RecordedEvent> resumed = ofType(events, "AwaitResumed");
+        Assertions.assertEquals(1, resumed.size());
+        // 延迟后由Mutiny的worker线程恢复
+        Assertions.assertTrue(resumed.get(0).getBoolean("threadHop"));
+    }
+
+    @Test
+    public void loopBatchesAndFailures() throws Exception {
+        List<RecordedEvent> events = record(
+            () -> {
+                JAsync.just().doForEachIntArray(new int[100], v -> null, null).block();
+                JAsync.error(new IllegalStateException("boom")).doCatch(IllegalStateException.class, e -> null).block();
+            }
+        );
+        List<RecordedEvent> batches = ofType(events, "LoopIterationBatch");
+        Assertions.assertEquals(1, batches.size());
+        Assertions.assertEquals(100, batches.get(0).getInt("iterations"));
+        List<RecordedEvent> failures = ofType(events, "PromiseFailed");
+        Assertions.assertEquals(1, failures.size());
+        Assertions.assertEquals("boom", failures.get(0).getString("message"));
+    }
+
+    @Test
+    public void disabledByDefault() throws Exception {
+        Path file = Files.createTempFile("jasync", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.start();
+            Promises.from(Uni.createFrom().item(1)).then(v -> JAsync.just(v)).block();
+            recording.stop();
+            recording.dump(file);
+            Assertions.assertTrue(
+                RecordingFile
+                    .readAllEvents(file)
+                    .stream()
+                    .noneMatch(e -> e.getEventType().getName().startsWith("team.qtk.jasync."))
+            );
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package team.qtk.jasync.mutiny;
+
+import io.github.vipcxj.jasync.spec.JAsync;
+import io.github.vipcxj.jasync.spec.JPromise;
+import io.smallrye.mutiny.Uni;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class MemoizeTest {
+
+    private static Uni<Integer> counted(AtomicInteger calls, Duration delay) {
+        Uni<Integer> uni = Uni.createFrom().item(calls::incrementAndGet);
+        return delay.isZero() ? uni : uni.onItem().delayIt().by(delay);
+    }
+
+    @Test
+    public void upstreamRunsOnce() {
+        AtomicInteger calls = new AtomicInteger();
+        JPromise<Integer> promise = Promises.memoize(counted(calls, Duration.ZERO));
+        Assertions.assertEquals(1, promise.block());
+        Assertions.assertEquals(2, promise.then(v -> JAsync.just(v + 1)).block());
+        Assertions.assertEquals(1, promise.block());
+        Assertions.assertEquals(1, promise.await());
+        Assertions.assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void notMemoizedByDefault() {
+        AtomicInteger calls = new AtomicInteger();
+        JPromise<Integer> promise = Promises.from(counted(calls, Duration.ZERO));
+        promise.block();
+        promise.block();
+        Assertions.assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void memoizeExistingPromise() {
+        AtomicInteger calls = new AtomicInteger();
+        UniPromise<Integer> promise = new UniPromise<>(counted(calls, Duration.ZERO)).memoize();
+        Assertions.assertSame(promise, promise.memoize());
+        promise.block();
+        promise.block();
+        Assertions.assertEquals(1, calls.get());
+        UniPromise<Integer> immediate = UniPromise.just(1);
+        Assertions.assertSame(immediate, immediate.memoize());
+    }
+
+    @Test
+    public void failureIsShared() {
+        AtomicInteger calls = new AtomicInteger();
+        JPromise<Integer> promise = Promises.memoize(
+            Uni.createFrom().failure(() -> new IllegalStateException(String.valueOf(calls.incrementAndGet())))
+        );
+        IllegalStateException first = Assertions.assertThrows(IllegalStateException.class, promise::block);
+        IllegalStateException second = Assertions.assertThrows(IllegalStateException.class, promise::block);
+        Assertions.assertSame(first, second);
+        Assertions.assertThrows(IllegalStateException.class, promise::await);
+        Assertions.assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void concurrentSubscribers() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        JPromise<Integer> promise = Promises.memoize(counted(calls, Duration.ofMillis(20)));
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return promise.then(v -> JAsync.just(v * 10)).block();
+                }));
+            }
+            start.countDown();
+            for (Future<Integer> result : results) {
+                Assertions.assertEquals(10, result.get());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        Assertions.assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void cancelledSubscriberDoesNotCancelUpstream() {
+        AtomicInteger calls = new AtomicInteger();
+        JPromise<Integer> promise = Promises.memoize(counted(calls, Duration.ofMillis(20)));
+        promise.async().cancel();
+        Assertions.assertEquals(1, promise.block());
+        Assertions.assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void firstResolutionWinsWhenMemoized() {
+        UniPromise<Integer> promise = new UniPromise<>(Uni.createFrom().item(1), null, true);
+        Assertions.assertFalse(promise.isResolved());
+        Assertions.assertTrue(promise.complete(1, null));
+        Assertions.assertFalse(promise.complete(2, null));
+        Assertions.assertTrue(promise.isResolved());
+        Assertions.assertEquals(1, promise.await());
+    }
+
+    @Test
+    public void coldPromiseReportsLatestRun() {
+        AtomicInteger calls = new AtomicInteger();
+        JPromise<Integer> promise = Promises.from(counted(calls, Duration.ZERO));
+        JPromise<Integer> next = promise.then(v -> JAsync.just(v));
+        Assertions.assertEquals(1, next.block());
+        Assertions.assertEquals(1, promise.await());
+        // 未记忆化的promise每次订阅重新执行，await()得到最近一次的结果
+        Assertions.assertEquals(2, next.block());
+        Assertions.assertEquals(2, promise.await());
+    }
+
+    @Test
+    public void memoizeDoesNotHopTwice() {
+        Executor executor = Runnable::run;
+        UniPromise<Integer> promise = new UniPromise<>(Uni.createFrom().item(1), executor).memoize();
+        Uni<Integer> uni = promise.unwrap(Uni.class);
+        Assertions.assertTrue(uni instanceof UniHop);
+        Assertions.assertTrue(((UniHop<Integer>) uni).upstream() instanceof UniMemoize);
+        Assertions.assertEquals(1, promise.block());
+    }
+}
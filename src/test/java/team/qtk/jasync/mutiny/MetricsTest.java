@@ -0,0 +1,85 @@
+package team.qtk.jasync.mutiny;
+
+import io.github.vipcxj.jasync.spec.JAsync;
+import io.smallrye.mutiny.Uni;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class MetricsTest {
+
+    private final InMemoryPromiseMetrics metrics = new InMemoryPromiseMetrics();
+
+    @BeforeEach
+    public void setup() {
+        Promises.setMetrics(metrics);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        Promises.setMetrics(null);
+    }
+
+    @Test
+    public void suspensionsAndSynchronousCompletions() {
+        Promises
+            .from(Uni.createFrom().item(1))
+            .then(v -> JAsync.just(v + 1))
+            .then(v -> Promises.from(Uni.createFrom().item(v).onItem().delayIt().by(Duration.ofMillis(5))))
+            .block();
+        Assertions.assertEquals(1, metrics.getAwaitsCompletedSynchronously());
+        Assertions.assertEquals(1, metrics.getAwaitsSuspended());
+        // from + 2个then + 内层from
+        Assertions.assertEquals(4, metrics.getStagesCreated());
+    }
+
+    @Test
+    public void loopsAndSignals() {
+        JAsync
+            .just()
+            .doForEachIterable(
+                List.of(1, 2, 3, 4, 5),
+                v -> {
+                    if (v == 2) {
+                        JAsync.doContinue(null);
+                    }
+                    if (v == 4) {
+                        JAsync.doBreak(null);
+                    }
+                    return null;
+                },
+                null
+            )
+            .block();
+        Assertions.assertEquals(4, metrics.getLoopIterations());
+        Assertions.assertEquals(1, metrics.getSignals(PromiseMetrics.Signal.CONTINUE));
+        Assertions.assertEquals(1, metrics.getSignals(PromiseMetrics.Signal.BREAK));
+    }
+
+    @Test
+    public void caughtExceptions() {
+        Promises
+            .from(Uni.createFrom().<Integer>failure(new IllegalStateException()))
+            .doCatch(IllegalStateException.class, e -> JAsync.just(0))
+            .block();
+        JAsync
+            .<Integer>error(new IllegalArgumentException())
+            .doCatch(IllegalArgumentException.class, e -> JAsync.just(0))
+            .block();
+        Assertions.assertEquals(2, metrics.getExceptionsCaught());
+        Assertions.assertEquals(1L, metrics.getExceptionsCaughtByType().get(IllegalStateException.class));
+    }
+
+    @Test
+    public void disabled() {
+        Promises.setMetrics(null);
+        Assertions.assertNull(Promises.getMetrics());
+        Promises.from(Uni.createFrom().item(1)).then(v -> JAsync.just(v)).block();
+        Assertions.assertEquals(0, metrics.getStagesCreated());
+    }
+}
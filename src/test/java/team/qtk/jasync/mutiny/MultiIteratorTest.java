@@ -0,0 +1,127 @@
+package team.qtk.jasync.mutiny;
+
+import io.github.vipcxj.jasync.spec.JAsync;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class MultiIteratorTest {
+
+    @Test
+    public void batchedDemand() {
+        List<Long> requests = Collections.synchronizedList(new ArrayList<>());
+        AtomicLong outstanding = new AtomicLong();
+        long[] maxBuffered = { 0 };
+        long[] sum = { 0 };
+        Multi<Integer> multi = Multi
+            .createFrom()
+            .range(0, 10_000)
+            .onRequest()
+            .invoke(n -> {
+                requests.add(n);
+                outstanding.addAndGet(n);
+            })
+            .onItem()
+            .invoke(outstanding::decrementAndGet);
+        Promises
+            .doForEachMulti(
+                multi,
+                64,
+                v -> {
+                    sum[0] += v;
+                    return null;
+                }
+            )
+            .block();
+        Assertions.assertEquals(10_000L * 9_999 / 2, sum[0]);
+        Assertions.assertEquals(64L, requests.get(0));
+        Assertions.assertTrue(requests.subList(1, requests.size()).stream().allMatch(n -> n == 48L), requests::toString);
+        Assertions.assertTrue(outstanding.get() <= 64);
+    }
+
+    @Test
+    public void asyncItemsAndBodies() {
+        List<Integer> visited = Collections.synchronizedList(new ArrayList<>());
+        Multi<Integer> multi = Multi.createFrom().range(0, 20).emitOn(Infrastructure.getDefaultWorkerPool());
+        UniPromise
+            .<Void>just(null)
+            .doForEachMulti(
+                multi,
+                4,
+                v ->
+                    Promises
+                        .from(Uni.createFrom().item(v).emitOn(Infrastructure.getDefaultWorkerPool()))
+                        .then(i -> {
+                            visited.add(i);
+                            return null;
+                        })
+            )
+            .block();
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            expected.add(i);
+        }
+        Assertions.assertEquals(expected, visited);
+    }
+
+    @Test
+    public void breakCancelsUpstream() {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        List<Integer> visited = new ArrayList<>();
+        Promises
+            .doForEachMulti(
+                Multi
+                    .createFrom()
+                    .ticks()
+                    .every(Duration.ofMillis(1))
+                    .map(Long::intValue)
+                    .onCancellation()
+                    .invoke(() -> cancelled.set(true)),
+                8,
+                v -> {
+                    if (v == 5) {
+                        JAsync.doBreak(null);
+                    }
+                    visited.add(v);
+                    return null;
+                }
+            )
+            .block();
+        Assertions.assertEquals(List.of(0, 1, 2, 3, 4), visited);
+        Assertions.assertTrue(cancelled.get());
+    }
+
+    @Test
+    public void upstreamFailure() {
+        List<Integer> visited = new ArrayList<>();
+        Multi<Integer> multi = Multi
+            .createFrom()
+            .range(0, 3)
+            .onCompletion()
+            .failWith(new IllegalStateException());
+        Assertions.assertThrows(
+            IllegalStateException.class,
+            () ->
+                Promises
+                    .doForEachMulti(
+                        multi,
+                        v -> {
+                            visited.add(v);
+                            return null;
+                        }
+                    )
+                    .block()
+        );
+        Assertions.assertEquals(List.of(0, 1, 2), visited);
+    }
+}
@@ -0,0 +1,128 @@
+package team.qtk.jasync.mutiny;
+
+import io.github.vipcxj.jasync.spec.JAsync;
+import io.github.vipcxj.jasync.spec.JPromise;
+import io.smallrye.mutiny.Uni;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ParallelForEachTest {
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    private JPromise<Void> remoteCall(Integer value, Set<Integer> visited) {
+        int current = inFlight.incrementAndGet();
+        maxInFlight.accumulateAndGet(current, Math::max);
+        return Promises
+            .from(Uni.createFrom().item(value).onItem().delayIt().by(Duration.ofMillis(10)))
+            .then(v -> {
+                inFlight.decrementAndGet();
+                visited.add(v);
+                return null;
+            });
+    }
+
+    @Test
+    public void boundedConcurrency() {
+        List<Integer> elements = IntStream.range(0, 40).boxed().collect(Collectors.toList());
+        Set<Integer> visited = ConcurrentHashMap.newKeySet();
+        long start = System.nanoTime();
+        Promises.doForEachParallel(elements, 8, v -> remoteCall(v, visited)).block();
+        long elapsed = Duration.ofNanos(System.nanoTime() - start).toMillis();
+        Assertions.assertEquals(40, visited.size());
+        Assertions.assertTrue(maxInFlight.get() <= 8, "max in flight: " + maxInFlight.get());
+        Assertions.assertTrue(maxInFlight.get() > 1);
+        // 顺序执行至少400ms
+        Assertions.assertTrue(elapsed < 400, "elapsed: " + elapsed);
+    }
+
+    @Test
+    public void arrayAfterPromise() {
+        Integer[] array = { 1, 2, 3, 4, 5 };
+        Set<Integer> visited = ConcurrentHashMap.newKeySet();
+        UniPromise.<Void>just(null).doForEachParallel(array, 2, v -> remoteCall(v, visited)).block();
+        Assertions.assertEquals(Set.of(array), visited);
+        Assertions.assertTrue(maxInFlight.get() <= 2);
+    }
+
+    @Test
+    public void nullElements() {
+        List<String> visited = Collections.synchronizedList(new ArrayList<>());
+        Promises
+            .doForEachParallel(
+                Arrays.asList("a", null, "b"),
+                2,
+                v -> {
+                    visited.add(v);
+                    return null;
+                }
+            )
+            .block();
+        Assertions.assertEquals(Arrays.asList("a", null, "b"), visited);
+    }
+
+    @Test
+    public void continueAndBreak() {
+        List<Integer> visited = Collections.synchronizedList(new ArrayList<>());
+        Promises
+            .doForEachParallel(
+                IntStream.range(0, 100).boxed().collect(Collectors.toList()),
+                1,
+                v -> {
+                    if (v % 2 == 0) {
+                        JAsync.doContinue(null);
+                    }
+                    if (v == 7) {
+                        JAsync.doBreak(null);
+                    }
+                    visited.add(v);
+                    return null;
+                }
+            )
+            .block();
+        Assertions.assertEquals(List.of(1, 3, 5), visited);
+    }
+
+    @Test
+    public void failureCancelsSiblings() {
+        AtomicInteger cancelled = new AtomicInteger();
+        AtomicInteger started = new AtomicInteger();
+        JPromise<Void> promise = Promises.doForEachParallel(
+            IntStream.range(0, 20).boxed().collect(Collectors.toList()),
+            4,
+            v -> {
+                started.incrementAndGet();
+                if (v == 2) {
+                    return JAsync.error(new IllegalStateException());
+                }
+                return Promises.from(
+                    Uni.createFrom().<Void>nothing().onCancellation().invoke(cancelled::incrementAndGet)
+                );
+            }
+        );
+        Assertions.assertThrows(IllegalStateException.class, promise::block);
+        Assertions.assertEquals(3, started.get());
+        Assertions.assertEquals(2, cancelled.get());
+    }
+
+    @Test
+    public void invalidConcurrency() {
+        Assertions.assertThrows(
+            IllegalArgumentException.class,
+            () -> Promises.doForEachParallel(List.of(1), 0, v -> null)
+        );
+    }
+}
@@ -0,0 +1,71 @@
+package team.qtk.jasync.mutiny;
+
+import io.github.vipcxj.jasync.spec.BreakException;
+import io.github.vipcxj.jasync.spec.JAsync;
+import io.github.vipcxj.jasync.spec.JPromise;
+import io.github.vipcxj.jasync.spec.switchexpr.ICase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import team.qtk.jasync.mutiny.TestSupport.Case;
+
+import static team.qtk.jasync.mutiny.TestSupport.delayed;
+
+public class SignalTest {
+
+    @Test
+    public void catchReturnAsync() {
+        JPromise<Integer> promise = delayed(1, 5).<Integer>then(v -> JAsync.doReturn(JAsync.just(v + 1))).catchReturn();
+        Assertions.assertEquals(2, promise.block());
+    }
+
+    @Test
+    public void catchReturnWithoutReturn() {
+        JPromise<Integer> promise = delayed(1, 5).catchReturn();
+        Assertions.assertNull(promise.block());
+    }
+
+    @Test
+    public void catchReturnKeepsOtherFailures() {
+        JPromise<Integer> promise = delayed(1, 5).<Integer>then(v -> JAsync.error(new IllegalStateException())).catchReturn();
+        Assertions.assertThrows(IllegalStateException.class, promise::block);
+    }
+
+    @Test
+    public void switchBreak() {
+        List<Integer> visited = new ArrayList<>();
+        List<ICase<Integer>> cases = List.of(
+            new Case<>(1, () -> delayed(null, 5).then(() -> {
+                visited.add(1);
+                return null;
+            })),
+            new Case<>(2, () -> delayed(null, 5).then(() -> {
+                visited.add(2);
+                JAsync.doBreak(null);
+                return null;
+            })),
+            new Case<>(3, () -> {
+                visited.add(3);
+                return null;
+            })
+        );
+        Assertions.assertNull(delayed(null, 5).doSwitch(1, cases, null).block());
+        Assertions.assertEquals(List.of(1, 2), visited);
+    }
+
+    @Test
+    public void switchBreakWithOtherLabelPropagates() {
+        List<ICase<Integer>> cases = List.of(
+            new Case<>(1, () -> {
+                JAsync.doBreak("outer");
+                return null;
+            })
+        );
+        BreakException e = Assertions.assertThrows(BreakException.class, () -> JAsync.just().doSwitch(1, cases, "switch").block());
+        Assertions.assertTrue(e.matchLabel("outer"));
+    }
+}
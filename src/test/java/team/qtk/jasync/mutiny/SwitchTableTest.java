@@ -0,0 +1,161 @@
+package team.qtk.jasync.mutiny;
+
+import io.github.vipcxj.jasync.spec.JAsync;
+import io.github.vipcxj.jasync.spec.JPromise;
+import io.github.vipcxj.jasync.spec.functional.VoidPromiseSupplier;
+import io.github.vipcxj.jasync.spec.switchexpr.ICase;
+import io.smallrye.mutiny.Uni;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import team.qtk.jasync.mutiny.TestSupport.Case;
+
+public class SwitchTableTest {
+
+    enum Color {
+        RED,
+        GREEN,
+        BLUE,
+    }
+
+    private static List<ICase<String>> stringCases(List<String> log) {
+        return List.of(
+            new Case<>("a", () -> {
+                log.add("a");
+                return null;
+            }),
+            new Case<>("b", () -> {
+                log.add("b");
+                return null;
+            }),
+            new Case<>("c", () -> {
+                log.add("c");
+                JAsync.doBreak(null);
+                return null;
+            }),
+            new Case<>(null, () -> {
+                log.add("default");
+                return null;
+            })
+        );
+    }
+
+    @Test
+    public void fallThroughUntilBreak() {
+        for (int i = 0; i < 3; ++i) {
+            List<String> log = new ArrayList<>();
+            JAsync.just().doSwitch("b", stringCases(log), null).block();
+            Assertions.assertEquals(List.of("b", "c"), log);
+        }
+    }
+
+    @Test
+    public void defaultCase() {
+        for (int i = 0; i < 3; ++i) {
+            List<String> log = new ArrayList<>();
+            JAsync.just().doSwitch("z", stringCases(log), null).block();
+            Assertions.assertEquals(List.of("default"), log);
+        }
+    }
+
+    @Test
+    public void enumWithoutDefault() {
+        List<Color> log = new ArrayList<>();
+        for (Color color : Color.values()) {
+            List<ICase<Color>> cases = List.of(
+                new Case<>(Color.RED, () -> {
+                    log.add(Color.RED);
+                    JAsync.doBreak(null);
+                    return null;
+                }),
+                new Case<>(Color.GREEN, () -> {
+                    log.add(Color.GREEN);
+                    JAsync.doBreak(null);
+                    return null;
+                })
+            );
+            Promises.from(Uni.createFrom().voidItem()).doSwitch(color, cases, null).block();
+        }
+        Assertions.assertEquals(List.of(Color.RED, Color.GREEN), log);
+    }
+
+    @Test
+    public void asyncBodies() {
+        List<Integer> log = new ArrayList<>();
+        List<ICase<Integer>> cases = new ArrayList<>();
+        for (int i = 0; i < 50; ++i) {
+            int value = i;
+            cases.add(new Case<>(value, () ->
+                Promises.from(Uni.createFrom().item(value)).then(v -> {
+                    log.add(v);
+                    if (v == 47) {
+                        JAsync.doBreak(null);
+                    }
+                    return null;
+                })
+            ));
+        }
+        JAsync.just().doSwitch(45, cases, null).block();
+        Assertions.assertEquals(List.of(45, 46, 47), log);
+    }
+
+    @Test
+    public void continueInsideSwitchReachesLoop() {
+        int[] i = { 0 };
+        List<Integer> log = new ArrayList<>();
+        JPromise<Void> loop = JAsync
+            .just()
+            .doWhileVoid(
+                () -> i[0] < 4,
+                () -> {
+                    int v = i[0]++;
+                    List<ICase<Integer>> cases = List.of(
+                        new Case<>(0, () -> {
+                            JAsync.doContinue(null);
+                            return null;
+                        }),
+                        new Case<>(null, () -> null)
+                    );
+                    return JAsync.just().doSwitch(v % 2, cases, null).then(() -> {
+                        log.add(v);
+                        return null;
+                    });
+                },
+                null
+            );
+        loop.block();
+        Assertions.assertEquals(List.of(1, 3), log);
+    }
+
+    // 所有body同一个lambda类，模拟共用body类的不同switch语句
+    private static VoidPromiseSupplier logAndBreak(List<Integer> log, int value) {
+        return () -> {
+            log.add(value);
+            JAsync.doBreak(null);
+            return null;
+        };
+    }
+
+    @Test
+    public void sitesSharingBodyClass() {
+        List<Integer> log = new ArrayList<>();
+        List<ICase<Integer>> first = List.of(new Case<>(1, logAndBreak(log, 1)), new Case<>(2, logAndBreak(log, 2)));
+        List<ICase<Integer>> second = List.of(
+            new Case<>(2, logAndBreak(log, 20)),
+            new Case<>(3, logAndBreak(log, 30)),
+            new Case<>(1, logAndBreak(log, 10))
+        );
+        for (int i = 0; i < 2; ++i) {
+            JAsync.just().doSwitch(2, first, null).block();
+            JAsync.just().doSwitch(3, first, null).block();
+            JAsync.just().doSwitch(2, second, null).block();
+            JAsync.just().doSwitch(3, second, null).block();
+            JAsync.just().doSwitch(1, second, null).block();
+        }
+        Assertions.assertEquals(List.of(2, 20, 30, 10, 2, 20, 30, 10), log);
+    }
+}
@@ -0,0 +1,138 @@
+package team.qtk.jasync.mutiny;
+
+import io.github.vipcxj.jasync.spec.JPromise;
+import io.github.vipcxj.jasync.spec.functional.VoidPromiseSupplier;
+import io.github.vipcxj.jasync.spec.switchexpr.ICase;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.subscription.UniEmitter;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.Assertions;
+
+/**
+ * 测试共用的辅助方法
+ */
+final class TestSupport {
+
+    private TestSupport() {
+    }
+
+    static <T> Uni<T> delayedUni(T value, long millis) {
+        return Uni.createFrom().item(value).onItem().delayIt().by(Duration.ofMillis(millis));
+    }
+
+    static <T> JPromise<T> delayed(T value, long millis) {
+        return Promises.from(delayedUni(value, millis));
+    }
+
+    static <T> JPromise<T> failed(Throwable error, long millis) {
+        return Promises.from(
+            Uni
+                .createFrom()
+                .<T>item(() -> null)
+                .onItem()
+                .delayIt()
+                .by(Duration.ofMillis(millis))
+                .onItem()
+                .failWith(() -> error)
+        );
+    }
+
+    static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // 最多等5秒
+    static void waitUntil(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            sleep(1);
+        }
+        Assertions.assertTrue(condition.getAsBoolean());
+    }
+
+    static void waitUntil(AtomicInteger counter, int expected) {
+        waitUntil(() -> counter.get() >= expected);
+    }
+
+    static <T> Gate<T> gate() {
+        return new Gate<>();
+    }
+
+    /**
+     * 由测试手动完成的Uni，记录订阅与取消次数；代替按时间完成的delayed，让断言不依赖耗时
+     */
+    static final class Gate<T> {
+
+        final AtomicInteger subscriptions = new AtomicInteger();
+        final AtomicInteger cancellations = new AtomicInteger();
+
+        private final List<UniEmitter<? super T>> emitters = new CopyOnWriteArrayList<>();
+
+        Uni<T> uni() {
+            return Uni
+                .createFrom()
+                .<T>emitter(
+                    emitter -> {
+                        subscriptions.incrementAndGet();
+                        emitters.add(emitter);
+                    }
+                )
+                .onCancellation()
+                .invoke(cancellations::incrementAndGet);
+        }
+
+        JPromise<T> promise() {
+            return Promises.from(uni());
+        }
+
+        // 完成当前所有订阅
+        void complete(T value) {
+            for (UniEmitter<? super T> emitter : emitters) {
+                emitters.remove(emitter);
+                emitter.complete(value);
+            }
+        }
+
+        void fail(Throwable error) {
+            for (UniEmitter<? super T> emitter : emitters) {
+                emitters.remove(emitter);
+                emitter.fail(error);
+            }
+        }
+    }
+
+    /**
+     * doSwitch的case，value为null时是default分支
+     */
+    static final class Case<C> implements ICase<C> {
+
+        private final C value;
+        private final VoidPromiseSupplier body;
+
+        Case(C value, VoidPromiseSupplier body) {
+            this.value = value;
+            this.body = body;
+        }
+
+        @Override
+        public boolean is(C value, boolean isDefault) {
+            return isDefault ? this.value == null : this.value != null && Objects.equals(this.value, value);
+        }
+
+        @Override
+        public VoidPromiseSupplier getBody() {
+            return body;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package team.qtk.jasync.mutiny;
+
+import io.github.vipcxj.jasync.spec.JAsync;
+import io.github.vipcxj.jasync.spec.JPromise;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class UniLoopTest {
+
+    @Test
+    public void tenMillionSyncIterations() {
+        int[] counter = { 0 };
+        JPromise<Void> loop = JAsync
+            .just()
+            .doWhileVoid(
+                () -> counter[0] < 10_000_000,
+                () -> {
+                    counter[0]++;
+                    return null;
+                },
+                null
+            );
+        Assertions.assertNull(loop.block());
+        Assertions.assertEquals(10_000_000, counter[0]);
+    }
+
+    @Test
+    public void synchronouslyCompletedUniBody() {
+        JPromise<Integer> loop = JAsync
+            .just(0)
+            .doWhile(
+                () -> true,
+                v -> {
+                    if (v == 1_000_000) {
+                        JAsync.doBreak(null);
+                    }
+                    return Promises.from(Uni.createFrom().item(v + 1));
+                },
+                null
+            );
+        Assertions.assertEquals(1_000_000, loop.block());
+    }
+
+    @Test
+    public void asyncBody() {
+        AtomicInteger counter = new AtomicInteger();
+        JPromise<Integer> loop = JAsync
+            .just(0)
+            .doWhile(
+                () -> counter.getAndIncrement() < 10_000,
+                v ->
+                    v % 100 == 0
+                        ? Promises.from(Uni.createFrom().item(v + 1).emitOn(Infrastructure.getDefaultWorkerPool()))
+                        : JAsync.just(v + 1),
+                null
+            );
+        Assertions.assertEquals(10_000, loop.block());
+    }
+
+    @Test
+    public void asyncPredicate() {
+        int[] counter = { 0 };
+        JPromise<Void> loop = JAsync
+            .just()
+            .doWhileVoid(
+                () -> Promises.from(Uni.createFrom().item(counter[0] < 100).onItem().delayIt().by(Duration.ofMillis(1))),
+                () -> {
+                    counter[0]++;
+                    return null;
+                },
+                null
+            );
+        Assertions.assertNull(loop.block());
+        Assertions.assertEquals(100, counter[0]);
+    }
+
+    @Test
+    public void continueAndBreak() {
+        int[] i = { 0 };
+        int[] sum = { 0 };
+        JPromise<Void> loop = JAsync
+            .just()
+            .doWhileVoid(
+                () -> true,
+                () -> {
+                    int v = i[0]++;
+                    if (v % 2 == 0) {
+                        JAsync.doContinue(null);
+                    }
+                    if (v > 10) {
+                        JAsync.doBreak(null);
+                    }
+                    sum[0] += v;
+                    return null;
+                },
+                null
+            );
+        Assertions.assertNull(loop.block());
+        Assertions.assertEquals(1 + 3 + 5 + 7 + 9, sum[0]);
+    }
+
+    @Test
+    public void labeledBreakPropagatesToOuterLoop() {
+        int[] outer = { 0 };
+        int[] inner = { 0 };
+        JPromise<Void> loop = JAsync
+            .just()
+            .doWhileVoid(
+                () -> outer[0] < 10,
+                () -> {
+                    outer[0]++;
+                    return JAsync
+                        .just()
+                        .doWhileVoid(
+                            () -> true,
+                            () -> {
+                                if (++inner[0] == 3) {
+                                    JAsync.doBreak("outer");
+                                }
+                                return null;
+                            },
+                            "inner"
+                        );
+                },
+                "outer"
+            );
+        Assertions.assertNull(loop.block());
+        Assertions.assertEquals(1, outer[0]);
+        Assertions.assertEquals(3, inner[0]);
+    }
+
+    @Test
+    public void failure() {
+        IllegalStateException error = new IllegalStateException();
+        JPromise<Void> loop = JAsync
+            .just()
+            .doWhileVoid(
+                () -> true,
+                () -> Promises.from(Uni.createFrom().failure(error)),
+                null
+            );
+        Assertions.assertSame(error, Assertions.assertThrows(IllegalStateException.class, loop::block));
+    }
+
+    @Test
+    public void resubscribeRestartsLoop() {
+        AtomicInteger counter = new AtomicInteger();
+        JPromise<Integer> loop = Promises
+            .from(Uni.createFrom().item(0))
+            .doWhile(() -> counter.get() % 5 != 4, v -> {
+                counter.incrementAndGet();
+                return JAsync.just(v + 1);
+            }, null);
+        Assertions.assertEquals(4, loop.block());
+        counter.incrementAndGet();
+        Assertions.assertEquals(4, loop.block());
+    }
+}
@@ -0,0 +1,86 @@
+package team.qtk.jasync.mutiny;
+
+import io.github.vipcxj.jasync.spec.JAsync;
+import io.github.vipcxj.jasync.spec.JPromise;
+import io.smallrye.mutiny.Uni;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class UniThenTest {
+
+    @Test
+    public void nullItemCallsResolverOnce() {
+        AtomicInteger calls = new AtomicInteger();
+        JPromise<String> promise = Promises
+            .from(Uni.createFrom().<Void>nullItem())
+            .then(() -> {
+                calls.incrementAndGet();
+                return JAsync.just("done");
+            });
+        Assertions.assertEquals("done", promise.block());
+        Assertions.assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void resolverReturnsNull() {
+        AtomicInteger calls = new AtomicInteger();
+        JPromise<Void> promise = Promises
+            .from(Uni.createFrom().item(1))
+            .then(v -> {
+                calls.incrementAndGet();
+                return null;
+            });
+        Assertions.assertNull(promise.block());
+        Assertions.assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void asyncUpstreamAndInner() {
+        JPromise<Integer> promise = Promises
+            .from(Uni.createFrom().item(1).onItem().delayIt().by(Duration.ofMillis(10)))
+            .then(v -> Promises.from(Uni.createFrom().item(v + 1).onItem().delayIt().by(Duration.ofMillis(10))))
+            .then(v -> JAsync.just(v + 1));
+        Assertions.assertEquals(3, promise.block());
+    }
+
+    @Test
+    public void resolverThrows() {
+        IllegalStateException error = new IllegalStateException();
+        JPromise<Integer> promise = Promises
+            .from(Uni.createFrom().item(1))
+            .then(v -> {
+                throw error;
+            });
+        Assertions.assertSame(error, Assertions.assertThrows(IllegalStateException.class, promise::block));
+    }
+
+    @Test
+    public void upstreamFailureSkipsResolver() {
+        JPromise<Integer> promise = Promises
+            .from(Uni.createFrom().<Integer>failure(new IllegalStateException()))
+            .then(v -> {
+                Assertions.fail();
+                return JAsync.just(v);
+            });
+        Assertions.assertThrows(IllegalStateException.class, promise::block);
+    }
+
+    @Test
+    public void cancelInner() {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        JPromise<Integer> promise = Promises
+            .from(Uni.createFrom().item(1))
+            .then(v ->
+                Promises.from(
+                    Uni.createFrom().<Integer>nothing().onCancellation().invoke(() -> cancelled.set(true))
+                )
+            );
+        promise.async().cancel();
+        Assertions.assertTrue(cancelled.get());
+    }
+}
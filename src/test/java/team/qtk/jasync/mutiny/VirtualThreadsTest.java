@@ -0,0 +1,55 @@
+package team.qtk.jasync.mutiny;
+
+import io.smallrye.mutiny.Uni;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+import static team.qtk.jasync.mutiny.TestSupport.delayed;
+
+public class VirtualThreadsTest {
+
+    @Test
+    public void blockOnVirtualThread() throws Exception {
+        Assumptions.assumeTrue(VirtualThreads.isSupported());
+        ExecutorService executor = VirtualThreads.newVirtualThreadPerTaskExecutor();
+        try {
+            CompletableFuture<Integer> result = CompletableFuture.supplyAsync(
+                () -> {
+                    Assertions.assertTrue(VirtualThreads.isVirtual(Thread.currentThread()));
+                    return delayed(3, 20).block();
+                },
+                executor
+            );
+            Assertions.assertEquals(3, result.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void asyncOnExecutor() throws Exception {
+        Assumptions.assumeTrue(VirtualThreads.isSupported());
+        CompletableFuture<Boolean> ranOnVirtualThread = new CompletableFuture<>();
+        UniPromise<Integer> promise = new UniPromise<>(
+            Uni.createFrom().item(() -> {
+                ranOnVirtualThread.complete(VirtualThreads.isVirtual(Thread.currentThread()));
+                return 1;
+            })
+        );
+        promise.async(VirtualThreads.executor());
+        Assertions.assertTrue(ranOnVirtualThread.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void unsupported() {
+        Assumptions.assumeFalse(VirtualThreads.isSupported());
+        Assertions.assertFalse(VirtualThreads.isVirtual(Thread.currentThread()));
+        Assertions.assertThrows(UnsupportedOperationException.class, VirtualThreads::newVirtualThreadPerTaskExecutor);
+    }
+}